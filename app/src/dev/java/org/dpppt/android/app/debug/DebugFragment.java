@@ -19,15 +19,18 @@ import android.text.Spanned;
 import android.text.style.ForegroundColorSpan;
 import android.text.style.StyleSpan;
 import android.view.View;
+import android.widget.Button;
+import android.widget.EditText;
 import android.widget.RadioGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.widget.Toolbar;
 import androidx.fragment.app.Fragment;
-import androidx.fragment.app.FragmentManager;
+import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.ViewModelProvider;
 
+import java.io.File;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
@@ -44,14 +47,9 @@ public class DebugFragment extends Fragment {
 
 	private static final DateFormat DATE_FORMAT_SYNC = SimpleDateFormat.getDateTimeInstance();
 	private TracingViewModel tracingViewModel;
-
-	public static void startDebugFragment(FragmentManager parentFragmentManager) {
-		parentFragmentManager.beginTransaction()
-				.setCustomAnimations(R.anim.slide_enter, R.anim.slide_exit, R.anim.slide_pop_enter, R.anim.slide_pop_exit)
-				.replace(R.id.main_fragment_container, DebugFragment.newInstance())
-				.addToBackStack(DebugFragment.class.getCanonicalName())
-				.commit();
-	}
+	private LoadGenerator loadGenerator;
+	private StatusTraceRecorder statusTraceRecorder;
+	private StatusTraceReplayer statusTraceReplayer;
 
 	public static DebugFragment newInstance() {
 		return new DebugFragment();
@@ -65,6 +63,9 @@ public class DebugFragment extends Fragment {
 	public void onCreate(@Nullable Bundle savedInstanceState) {
 		super.onCreate(savedInstanceState);
 		tracingViewModel = new ViewModelProvider(requireActivity()).get(TracingViewModel.class);
+		loadGenerator = new ViewModelProvider(requireActivity()).get(LoadGenerator.class);
+		statusTraceRecorder = new ViewModelProvider(requireActivity()).get(StatusTraceRecorder.class);
+		statusTraceReplayer = new ViewModelProvider(requireActivity()).get(StatusTraceReplayer.class);
 	}
 
 	@Override
@@ -74,6 +75,10 @@ public class DebugFragment extends Fragment {
 
 		setupSdkViews(view);
 		setupStateOptions(view);
+		setupLoadGenerator(view);
+		setupStatusTrace(view);
+		setupPerformanceHud(view);
+		setupRetentionWatcher(view);
 
 	}
 
@@ -143,6 +148,137 @@ public class DebugFragment extends Fragment {
 		optionsGroup.check(preSetId);
 	}
 
+	private void setupLoadGenerator(View view) {
+		EditText exposureDaysInput = view.findViewById(R.id.debug_load_exposure_days);
+		EditText contactsInput = view.findViewById(R.id.debug_load_contacts);
+		EditText errorIntervalInput = view.findViewById(R.id.debug_load_error_interval);
+		EditText broadcastIntervalInput = view.findViewById(R.id.debug_load_broadcast_interval);
+		TextView statsText = view.findViewById(R.id.debug_load_stats);
+		Button button = view.findViewById(R.id.debug_button_load_generator);
+
+		button.setOnClickListener(v -> {
+			if (loadGenerator.isRunning()) {
+				loadGenerator.stop();
+			} else {
+				statusTraceReplayer.stop();
+				LoadGenerator.Config config = new LoadGenerator.Config(
+						Math.min(parseInput(exposureDaysInput), 14),
+						parseInput(contactsInput),
+						parseInput(errorIntervalInput),
+						parseInput(broadcastIntervalInput));
+				loadGenerator.start(tracingViewModel, config);
+			}
+			button.setText(loadGenerator.isRunning() ? R.string.debug_load_generator_stop : R.string.debug_load_generator_start);
+		});
+		button.setText(loadGenerator.isRunning() ? R.string.debug_load_generator_stop : R.string.debug_load_generator_start);
+
+		loadGenerator.getStatsLiveData().observe(getViewLifecycleOwner(), stats -> {
+			statsText.setVisibility(View.VISIBLE);
+			statsText.setText(getString(R.string.debug_load_stats,
+					getString(stats.isRunning() ? R.string.debug_load_running : R.string.debug_load_stopped),
+					stats.getEmissionCount(), stats.getEmissionsPerSecond(), stats.getFrameCount(),
+					stats.getAverageFrameTimeMillis(), stats.getMaxFrameTimeMillis(), stats.getJankyFrameCount()));
+		});
+	}
+
+	private void setupStatusTrace(View view) {
+		TextView statsText = view.findViewById(R.id.debug_trace_stats);
+		Button recordButton = view.findViewById(R.id.debug_button_trace_record);
+		Button replayButton = view.findViewById(R.id.debug_button_trace_replay);
+
+		recordButton.setOnClickListener(v -> {
+			if (statusTraceRecorder.isRecording()) {
+				statusTraceRecorder.stop();
+			} else {
+				statusTraceRecorder.start(requireActivity(), tracingViewModel);
+			}
+			recordButton.setText(statusTraceRecorder.isRecording() ? R.string.debug_trace_record_stop
+																   : R.string.debug_trace_record_start);
+		});
+		recordButton.setText(statusTraceRecorder.isRecording() ? R.string.debug_trace_record_stop
+															   : R.string.debug_trace_record_start);
+		statusTraceRecorder.getRecordedEventCountLiveData().observe(getViewLifecycleOwner(), count -> {
+			if (statusTraceRecorder.isRecording()) {
+				statsText.setVisibility(View.VISIBLE);
+				statsText.setText(getString(R.string.debug_trace_recording, count));
+			}
+		});
+
+		replayButton.setOnClickListener(v -> {
+			if (statusTraceReplayer.isReplaying()) {
+				statusTraceReplayer.stop();
+			} else {
+				loadGenerator.stop();
+				statusTraceRecorder.stop();
+				recordButton.setText(R.string.debug_trace_record_start);
+				File traceFile = StatusTrace.getLatestTraceFile(requireContext());
+				TracingViewModel viewModel = tracingViewModel;
+				// the activity can't be driven from here, replay how the home screen reacts to being started instead
+				StatusTraceReplayer.LifecycleTarget lifecycleTarget = event -> {
+					if (event == Lifecycle.Event.ON_START) viewModel.invalidateTracingStatus();
+				};
+				if (traceFile == null || !statusTraceReplayer.start(viewModel, traceFile, lifecycleTarget)) {
+					statsText.setVisibility(View.VISIBLE);
+					statsText.setText(R.string.debug_trace_replay_failed);
+				}
+			}
+			replayButton.setText(statusTraceReplayer.isReplaying() ? R.string.debug_trace_replay_stop
+																   : R.string.debug_trace_replay_start);
+		});
+		statusTraceReplayer.getStatsLiveData().observe(getViewLifecycleOwner(), stats -> {
+			statsText.setVisibility(View.VISIBLE);
+			statsText.setText(getString(R.string.debug_trace_replay_stats,
+					getString(stats.isReplaying() ? R.string.debug_load_running : R.string.debug_load_stopped),
+					stats.getEmittedCount(), stats.getEventCount(), stats.getSkippedEventCount(),
+					stats.getAverageDispatchMillis(), stats.getMaxDispatchMillis(),
+					stats.getAverageFrameMillis(), stats.getMaxFrameMillis()));
+			replayButton.setText(stats.isReplaying() ? R.string.debug_trace_replay_stop : R.string.debug_trace_replay_start);
+		});
+	}
+
+	private void setupPerformanceHud(View view) {
+		Button hudButton = view.findViewById(R.id.debug_button_performance_hud);
+		hudButton.setOnClickListener(v -> {
+			PerformanceHud.setShown(requireActivity(), !PerformanceHud.isShown(requireActivity()));
+			hudButton.setText(PerformanceHud.isShown(requireActivity()) ? R.string.debug_performance_hud_hide
+																		: R.string.debug_performance_hud_show);
+		});
+		hudButton.setText(PerformanceHud.isShown(requireActivity()) ? R.string.debug_performance_hud_hide
+																	: R.string.debug_performance_hud_show);
+	}
+
+	private void setupRetentionWatcher(View view) {
+		RetentionWatcher retentionWatcher = RetentionWatcher.getInstance(requireActivity());
+		TextView statsText = view.findViewById(R.id.debug_retention_stats);
+		Button startButton = view.findViewById(R.id.debug_button_retention);
+
+		startButton.setOnClickListener(v -> {
+			retentionWatcher.start(requireActivity());
+			startButton.setEnabled(false);
+			startButton.setText(R.string.debug_retention_running);
+		});
+		startButton.setEnabled(!retentionWatcher.isRunning());
+		startButton.setText(retentionWatcher.isRunning() ? R.string.debug_retention_running : R.string.debug_retention_start);
+		retentionWatcher.getStatsLiveData().observe(getViewLifecycleOwner(), stats -> {
+			StringBuilder retained = new StringBuilder();
+			for (String description : stats.getRetained()) {
+				retained.append("\n").append(description);
+			}
+			statsText.setVisibility(View.VISIBLE);
+			statsText.setText(getString(R.string.debug_retention_stats,
+					stats.getWatchedCount(), stats.getCollectedCount(), stats.getRetained().size(),
+					stats.getHeapGrowthBytes() / 1024, stats.getHeapGrowthPerFragmentBytes() / 1024, retained));
+		});
+	}
+
+	private int parseInput(EditText input) {
+		try {
+			return Math.max(0, Integer.parseInt(input.getText().toString()));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
 	private SpannableString formatStatusString(TracingStatus status) {
 		SpannableStringBuilder builder = new SpannableStringBuilder();
 		boolean isTracing = (status.isAdvertising() || status.isReceiving()) && status.getErrors().size() == 0;
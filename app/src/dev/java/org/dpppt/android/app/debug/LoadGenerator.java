@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.debug;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dpppt.android.app.viewmodel.TracingViewModel;
+import org.dpppt.android.sdk.InfectionStatus;
+import org.dpppt.android.sdk.TracingStatus;
+import org.dpppt.android.sdk.internal.database.models.ExposureDay;
+import org.dpppt.android.sdk.internal.util.DayDate;
+
+/**
+ * Feeds synthetic tracing statuses into the {@link TracingViewModel} at a configurable rate to stress the screens that
+ * observe it, and measures the frame times of the UI thread while it runs. Scoped to the activity, so it keeps running
+ * when navigating away from the debug screen.
+ */
+public class LoadGenerator extends ViewModel {
+
+	private static final long STATS_INTERVAL = 500;
+	private static final TracingStatus.ErrorState[] TOGGLED_ERRORS = new TracingStatus.ErrorState[] {
+			TracingStatus.ErrorState.BLE_SCANNER_ERROR,
+			TracingStatus.ErrorState.SYNC_ERROR_NETWORK,
+			TracingStatus.ErrorState.BLE_DISABLED,
+			TracingStatus.ErrorState.LOCATION_SERVICE_DISABLED };
+
+	private final Handler handler = new Handler(Looper.getMainLooper());
+	private final MutableLiveData<Stats> statsLiveData = new MutableLiveData<>();
+
+	private TracingViewModel tracingViewModel;
+	private Config config;
+	private List<ExposureDay> exposureDays;
+	private boolean running = false;
+
+	private long startTime;
+	private long lastErrorToggleTime;
+	private int errorToggleCount;
+	private int emissionCount;
+	private int frameCount;
+	private long lastFrameTimeNanos;
+	private long frameTimeSumNanos;
+	private long maxFrameTimeNanos;
+	private int jankyFrameCount;
+
+	private final Runnable emitRunnable = new Runnable() {
+		@Override
+		public void run() {
+			emit();
+			handler.postDelayed(this, config.broadcastIntervalMillis);
+		}
+	};
+
+	private final Runnable statsRunnable = new Runnable() {
+		@Override
+		public void run() {
+			publishStats();
+			handler.postDelayed(this, STATS_INTERVAL);
+		}
+	};
+
+	private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			if (lastFrameTimeNanos != 0) {
+				long frameTime = frameTimeNanos - lastFrameTimeNanos;
+				frameCount++;
+				frameTimeSumNanos += frameTime;
+				maxFrameTimeNanos = Math.max(maxFrameTimeNanos, frameTime);
+				if (frameTime > Stats.JANK_THRESHOLD_NANOS) jankyFrameCount++;
+			}
+			lastFrameTimeNanos = frameTimeNanos;
+			if (running) Choreographer.getInstance().postFrameCallback(this);
+		}
+	};
+
+	public void start(TracingViewModel tracingViewModel, Config config) {
+		stop();
+		this.tracingViewModel = tracingViewModel;
+		this.config = config;
+		exposureDays = createExposureDays(config.exposureDayCount);
+		running = true;
+
+		startTime = SystemClock.elapsedRealtime();
+		lastErrorToggleTime = startTime;
+		errorToggleCount = 0;
+		emissionCount = 0;
+		frameCount = 0;
+		lastFrameTimeNanos = 0;
+		frameTimeSumNanos = 0;
+		maxFrameTimeNanos = 0;
+		jankyFrameCount = 0;
+
+		handler.post(emitRunnable);
+		handler.postDelayed(statsRunnable, STATS_INTERVAL);
+		Choreographer.getInstance().postFrameCallback(frameCallback);
+	}
+
+	public void stop() {
+		if (!running) return;
+		running = false;
+		handler.removeCallbacks(emitRunnable);
+		handler.removeCallbacks(statsRunnable);
+		Choreographer.getInstance().removeFrameCallback(frameCallback);
+		publishStats();
+		tracingViewModel.setStatusOverride(null);
+		tracingViewModel = null;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public LiveData<Stats> getStatsLiveData() {
+		return statsLiveData;
+	}
+
+	private void emit() {
+		long now = SystemClock.elapsedRealtime();
+		if (config.errorToggleIntervalMillis > 0 && now - lastErrorToggleTime >= config.errorToggleIntervalMillis) {
+			lastErrorToggleTime = now;
+			errorToggleCount++;
+		}
+
+		Collection<TracingStatus.ErrorState> errors;
+		if (errorToggleCount % 2 == 0) {
+			errors = Collections.emptyList();
+		} else {
+			errors = EnumSet.of(TOGGLED_ERRORS[(errorToggleCount / 2) % TOGGLED_ERRORS.length]);
+		}
+		InfectionStatus infectionStatus = exposureDays.isEmpty() ? InfectionStatus.HEALTHY : InfectionStatus.EXPOSED;
+		int numberOfContacts = config.numberOfContacts + emissionCount;
+
+		tracingViewModel.setStatusOverride(new TracingStatus(numberOfContacts, true, true, System.currentTimeMillis(),
+				infectionStatus, exposureDays, errors));
+		emissionCount++;
+	}
+
+	private void publishStats() {
+		long elapsed = SystemClock.elapsedRealtime() - startTime;
+		statsLiveData.setValue(new Stats(running, elapsed, emissionCount, frameCount,
+				frameCount > 0 ? frameTimeSumNanos / frameCount : 0, maxFrameTimeNanos, jankyFrameCount));
+	}
+
+	private static List<ExposureDay> createExposureDays(int count) {
+		List<ExposureDay> exposureDays = new ArrayList<>(count);
+		Calendar calendar = Calendar.getInstance();
+		for (int i = 0; i < count; i++) {
+			exposureDays.add(new ExposureDay(i, new DayDate(calendar.getTimeInMillis()), System.currentTimeMillis()));
+			calendar.add(Calendar.DAY_OF_YEAR, -1);
+		}
+		return exposureDays;
+	}
+
+	@Override
+	protected void onCleared() {
+		stop();
+	}
+
+	public static class Config {
+
+		private final int exposureDayCount;
+		private final int numberOfContacts;
+		private final long errorToggleIntervalMillis;
+		private final long broadcastIntervalMillis;
+
+		public Config(int exposureDayCount, int numberOfContacts, long errorToggleIntervalMillis,
+				long broadcastIntervalMillis) {
+			this.exposureDayCount = exposureDayCount;
+			this.numberOfContacts = numberOfContacts;
+			this.errorToggleIntervalMillis = errorToggleIntervalMillis;
+			this.broadcastIntervalMillis = Math.max(1, broadcastIntervalMillis);
+		}
+
+	}
+
+	public static class Stats {
+
+		private static final long JANK_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(17);
+
+		private final boolean running;
+		private final long elapsedMillis;
+		private final int emissionCount;
+		private final int frameCount;
+		private final long averageFrameTimeNanos;
+		private final long maxFrameTimeNanos;
+		private final int jankyFrameCount;
+
+		private Stats(boolean running, long elapsedMillis, int emissionCount, int frameCount, long averageFrameTimeNanos,
+				long maxFrameTimeNanos, int jankyFrameCount) {
+			this.running = running;
+			this.elapsedMillis = elapsedMillis;
+			this.emissionCount = emissionCount;
+			this.frameCount = frameCount;
+			this.averageFrameTimeNanos = averageFrameTimeNanos;
+			this.maxFrameTimeNanos = maxFrameTimeNanos;
+			this.jankyFrameCount = jankyFrameCount;
+		}
+
+		public boolean isRunning() {
+			return running;
+		}
+
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		public int getEmissionCount() {
+			return emissionCount;
+		}
+
+		public float getEmissionsPerSecond() {
+			return elapsedMillis > 0 ? emissionCount * 1000f / elapsedMillis : 0;
+		}
+
+		public int getFrameCount() {
+			return frameCount;
+		}
+
+		public float getAverageFrameTimeMillis() {
+			return averageFrameTimeNanos / 1e6f;
+		}
+
+		public float getMaxFrameTimeMillis() {
+			return maxFrameTimeNanos / 1e6f;
+		}
+
+		public int getJankyFrameCount() {
+			return jankyFrameCount;
+		}
+
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.debug;
+
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.util.TypedValue;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.view.Window;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+import androidx.fragment.app.FragmentActivity;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.dpppt.android.app.R;
+import org.dpppt.android.app.util.PerformanceMetrics;
+import org.dpppt.android.app.util.PerformanceMetrics.Metric;
+
+/**
+ * Overlay on top of the activity's window showing the values collected by {@link PerformanceMetrics}. Frame durations
+ * are taken from the window's frame metrics where available (API 24+), otherwise from the interval between Choreographer
+ * frame callbacks.
+ */
+public class PerformanceHud {
+
+	private static final long REFRESH_INTERVAL_MS = 500;
+	private static final long ONE_SECOND_MS = 1000;
+	private static final long ONE_MINUTE_MS = 60 * ONE_SECOND_MS;
+
+	private static final Map<FragmentActivity, PerformanceHud> instances = new WeakHashMap<>();
+
+	private final FragmentActivity activity;
+	private final TextView overlay;
+	private final Handler handler = new Handler(Looper.getMainLooper());
+	private final StringBuilder text = new StringBuilder();
+
+	private HandlerThread frameMetricsThread;
+	private Window.OnFrameMetricsAvailableListener frameMetricsListener;
+	private long lastFrameTimeNanos;
+
+	private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			if (lastFrameTimeNanos > 0) {
+				PerformanceMetrics.recordDuration(Metric.FRAME, frameTimeNanos - lastFrameTimeNanos);
+			}
+			lastFrameTimeNanos = frameTimeNanos;
+			Choreographer.getInstance().postFrameCallback(this);
+		}
+	};
+
+	private final Runnable refreshRunnable = new Runnable() {
+		@Override
+		public void run() {
+			refresh();
+			handler.postDelayed(this, REFRESH_INTERVAL_MS);
+		}
+	};
+
+	private final LifecycleEventObserver lifecycleObserver = (source, event) -> {
+		if (event == Lifecycle.Event.ON_DESTROY) {
+			hide();
+		}
+	};
+
+	public static boolean isShown(@NonNull FragmentActivity activity) {
+		return instances.containsKey(activity);
+	}
+
+	public static void setShown(@NonNull FragmentActivity activity, boolean shown) {
+		PerformanceHud hud = instances.get(activity);
+		if (shown && hud == null) {
+			new PerformanceHud(activity).show();
+		} else if (!shown && hud != null) {
+			hud.hide();
+		}
+	}
+
+	private PerformanceHud(FragmentActivity activity) {
+		this.activity = activity;
+
+		overlay = new TextView(activity);
+		overlay.setTypeface(Typeface.MONOSPACE);
+		overlay.setTextSize(TypedValue.COMPLEX_UNIT_SP, 10);
+		overlay.setTextColor(Color.WHITE);
+		overlay.setBackgroundColor(0xB0000000);
+		int padding = activity.getResources().getDimensionPixelSize(R.dimen.spacing_small);
+		overlay.setPadding(padding, padding, padding, padding);
+		// purely informational, touches go to the screen below
+		overlay.setClickable(false);
+		overlay.setFocusable(false);
+	}
+
+	private void show() {
+		ViewGroup decorView = (ViewGroup) activity.getWindow().getDecorView();
+		FrameLayout.LayoutParams layoutParams = new FrameLayout.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+				ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.BOTTOM | Gravity.START);
+		int margin = activity.getResources().getDimensionPixelSize(R.dimen.spacing_medium);
+		layoutParams.setMargins(margin, margin, margin, margin);
+		decorView.addView(overlay, layoutParams);
+		instances.put(activity, this);
+
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+			startFrameMetrics();
+		} else {
+			lastFrameTimeNanos = 0;
+			Choreographer.getInstance().postFrameCallback(frameCallback);
+		}
+		handler.post(refreshRunnable);
+		activity.getLifecycle().addObserver(lifecycleObserver);
+	}
+
+	private void hide() {
+		activity.getLifecycle().removeObserver(lifecycleObserver);
+		handler.removeCallbacks(refreshRunnable);
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+			stopFrameMetrics();
+		} else {
+			Choreographer.getInstance().removeFrameCallback(frameCallback);
+		}
+		ViewGroup decorView = (ViewGroup) activity.getWindow().getDecorView();
+		decorView.removeView(overlay);
+		instances.remove(activity);
+	}
+
+	@RequiresApi(api = Build.VERSION_CODES.N)
+	private void startFrameMetrics() {
+		frameMetricsThread = new HandlerThread("PerformanceHud");
+		frameMetricsThread.start();
+		frameMetricsListener = (window, frameMetrics, dropCountSinceLastInvocation) -> PerformanceMetrics
+				.recordDuration(Metric.FRAME, frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+		activity.getWindow().addOnFrameMetricsAvailableListener(frameMetricsListener, new Handler(frameMetricsThread.getLooper()));
+	}
+
+	@RequiresApi(api = Build.VERSION_CODES.N)
+	private void stopFrameMetrics() {
+		activity.getWindow().removeOnFrameMetricsAvailableListener(frameMetricsListener);
+		frameMetricsThread.quitSafely();
+		frameMetricsThread = null;
+		frameMetricsListener = null;
+	}
+
+	private void refresh() {
+		text.setLength(0);
+		if (!PerformanceMetrics.ENABLED) {
+			overlay.setText(R.string.debug_performance_hud_disabled);
+			return;
+		}
+
+		PerformanceMetrics.Snapshot frames = PerformanceMetrics.getSnapshot(Metric.FRAME, ONE_SECOND_MS);
+		appendLine("frames", "%d, avg %.1f ms, max %.1f ms, janky %d", frames.getCount(), frames.getAverageMillis(),
+				frames.getMaxMillis(), frames.getSlowCount());
+		PerformanceMetrics.Snapshot statusQuery = PerformanceMetrics.getSnapshot(Metric.STATUS_QUERY, ONE_MINUTE_MS);
+		appendLine("getStatus", "last %.1f ms, avg %.1f ms, max %.1f ms", statusQuery.getLastMillis(),
+				statusQuery.getAverageMillis(), statusQuery.getMaxMillis());
+		PerformanceMetrics.Snapshot sync = PerformanceMetrics.getSnapshot(Metric.SYNC, ONE_MINUTE_MS);
+		appendLine("sync", "%d, last %.0f ms, avg %.0f ms", sync.getCount(), sync.getLastMillis(), sync.getAverageMillis());
+		PerformanceMetrics.Snapshot storageInit = PerformanceMetrics.getSnapshot(Metric.SECURE_STORAGE_INIT, ONE_MINUTE_MS);
+		PerformanceMetrics.Snapshot storageRead = PerformanceMetrics.getSnapshot(Metric.SECURE_STORAGE_READ, ONE_MINUTE_MS);
+		appendLine("storage", "init %.1f ms, %d reads avg %.2f ms, max %.2f ms", storageInit.getMaxMillis(),
+				storageRead.getCount(), storageRead.getAverageMillis(), storageRead.getMaxMillis());
+		PerformanceMetrics.Snapshot emissions = PerformanceMetrics.getSnapshot(Metric.STATUS_EMISSION, ONE_MINUTE_MS);
+		appendLine("emissions", "%d, %.0f/min", emissions.getCount(), emissions.getRatePerWindow());
+		PerformanceMetrics.Snapshot headerFrames = PerformanceMetrics.getSnapshot(Metric.HEADER_ANIMATION_FRAME, ONE_SECOND_MS);
+		PerformanceMetrics.Snapshot headerScroll = PerformanceMetrics.getSnapshot(Metric.HEADER_SCROLL_FRAME, ONE_SECOND_MS);
+		appendLine("header fps", "%.0f, while fading %.0f", headerFrames.getRatePerWindow(), headerScroll.getRatePerWindow());
+		PerformanceMetrics.Snapshot homeEntry = PerformanceMetrics.getSnapshot(Metric.HOME_ENTRY, ONE_MINUTE_MS);
+		appendLine("home entry", "last %.1f ms, avg %.1f ms", homeEntry.getLastMillis(), homeEntry.getAverageMillis());
+		overlay.setText(text);
+	}
+
+	private void appendLine(String label, String format, Object... args) {
+		if (text.length() > 0) text.append('\n');
+		text.append(String.format(Locale.ROOT, "%-10s ", label)).append(String.format(Locale.ROOT, format, args));
+	}
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.debug;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.fragment.app.FragmentManager;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Watches activities, fragments and fragment views after they have been destroyed and reports the ones that are still
+ * reachable after a garbage collection a few seconds later. Driving a screen through a number of open/close cycles with
+ * the watcher running shows retained objects and the heap growth per cycle.
+ */
+public class RetentionWatcher {
+
+	private static final String TAG = "RetentionWatcher";
+	private static final long RETENTION_DELAY_MS = 5000;
+
+	private static RetentionWatcher instance;
+
+	private final Application application;
+	private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<>();
+	private final Set<WatchedReference> watchedReferences = new HashSet<>();
+	private final List<String> retained = new ArrayList<>();
+	private final MutableLiveData<Stats> statsLiveData = new MutableLiveData<>();
+
+	private Handler checkHandler;
+	private long baselineHeap;
+	private int watchedCount;
+	private int collectedCount;
+	private int destroyedFragmentCount;
+
+	private final FragmentManager.FragmentLifecycleCallbacks fragmentCallbacks =
+			new FragmentManager.FragmentLifecycleCallbacks() {
+				@Override
+				public void onFragmentViewDestroyed(@NonNull FragmentManager fm, @NonNull Fragment f) {
+					View view = f.getView();
+					if (view != null) {
+						watch(view, f.getClass().getSimpleName() + " view");
+					}
+				}
+
+				@Override
+				public void onFragmentDestroyed(@NonNull FragmentManager fm, @NonNull Fragment f) {
+					synchronized (watchedReferences) {
+						destroyedFragmentCount++;
+					}
+					watch(f, f.getClass().getSimpleName());
+				}
+			};
+
+	private final Application.ActivityLifecycleCallbacks activityCallbacks = new Application.ActivityLifecycleCallbacks() {
+		@Override
+		public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+			registerFragmentCallbacks(activity);
+		}
+
+		@Override
+		public void onActivityStarted(@NonNull Activity activity) { }
+
+		@Override
+		public void onActivityResumed(@NonNull Activity activity) { }
+
+		@Override
+		public void onActivityPaused(@NonNull Activity activity) { }
+
+		@Override
+		public void onActivityStopped(@NonNull Activity activity) { }
+
+		@Override
+		public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) { }
+
+		@Override
+		public void onActivityDestroyed(@NonNull Activity activity) {
+			watch(activity, activity.getClass().getSimpleName());
+		}
+	};
+
+	public static synchronized RetentionWatcher getInstance(@NonNull Activity activity) {
+		if (instance == null) {
+			instance = new RetentionWatcher(activity.getApplication());
+		}
+		return instance;
+	}
+
+	private RetentionWatcher(Application application) {
+		this.application = application;
+	}
+
+	public boolean isRunning() {
+		return checkHandler != null;
+	}
+
+	/**
+	 * Starts watching the given activity and every activity created from now on. The watcher runs until the process dies.
+	 */
+	public void start(@NonNull FragmentActivity currentActivity) {
+		if (isRunning()) return;
+		HandlerThread checkThread = new HandlerThread(TAG);
+		checkThread.start();
+		checkHandler = new Handler(checkThread.getLooper());
+		checkHandler.post(() -> {
+			baselineHeap = getHeapAfterGc();
+			publishStats();
+		});
+
+		registerFragmentCallbacks(currentActivity);
+		application.registerActivityLifecycleCallbacks(activityCallbacks);
+	}
+
+	public LiveData<Stats> getStatsLiveData() {
+		return statsLiveData;
+	}
+
+	private void registerFragmentCallbacks(Activity activity) {
+		if (activity instanceof FragmentActivity) {
+			((FragmentActivity) activity).getSupportFragmentManager()
+					.registerFragmentLifecycleCallbacks(fragmentCallbacks, true);
+		}
+	}
+
+	private void watch(Object object, String description) {
+		WatchedReference reference = new WatchedReference(object, description, referenceQueue);
+		synchronized (watchedReferences) {
+			watchedReferences.add(reference);
+			watchedCount++;
+		}
+		checkHandler.postDelayed(this::check, RETENTION_DELAY_MS);
+	}
+
+	private void check() {
+		long heap = getHeapAfterGc();
+		long retainedBefore = SystemClock.elapsedRealtime() - RETENTION_DELAY_MS;
+		synchronized (watchedReferences) {
+			Reference<?> collected;
+			while ((collected = referenceQueue.poll()) != null) {
+				if (watchedReferences.remove(collected)) collectedCount++;
+			}
+			Iterator<WatchedReference> iterator = watchedReferences.iterator();
+			while (iterator.hasNext()) {
+				WatchedReference reference = iterator.next();
+				if (reference.watchTime <= retainedBefore) {
+					iterator.remove();
+					retained.add(reference.description);
+					Log.w(TAG, reference.description + " is still reachable " + RETENTION_DELAY_MS + " ms after being destroyed");
+				}
+			}
+		}
+		publishStats(heap);
+	}
+
+	private void publishStats() {
+		publishStats(getHeapAfterGc());
+	}
+
+	private void publishStats(long heap) {
+		List<String> retainedCopy;
+		int watched;
+		int collected;
+		int cycles;
+		synchronized (watchedReferences) {
+			retainedCopy = Collections.unmodifiableList(new ArrayList<>(retained));
+			watched = watchedCount;
+			collected = collectedCount;
+			cycles = destroyedFragmentCount;
+		}
+		long heapGrowth = heap - baselineHeap;
+		statsLiveData.postValue(new Stats(watched, collected, retainedCopy, heapGrowth,
+				cycles > 0 ? heapGrowth / cycles : 0));
+	}
+
+	private static long getHeapAfterGc() {
+		Runtime runtime = Runtime.getRuntime();
+		runtime.gc();
+		// give the finalizer and reference queue daemons a chance to catch up before measuring
+		SystemClock.sleep(100);
+		System.runFinalization();
+		runtime.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static class WatchedReference extends WeakReference<Object> {
+
+		private final String description;
+		private final long watchTime = SystemClock.elapsedRealtime();
+
+		private WatchedReference(Object referent, String description, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+			this.description = description;
+		}
+
+	}
+
+	public static class Stats {
+
+		private final int watchedCount;
+		private final int collectedCount;
+		private final List<String> retained;
+		private final long heapGrowthBytes;
+		private final long heapGrowthPerFragmentBytes;
+
+		private Stats(int watchedCount, int collectedCount, List<String> retained, long heapGrowthBytes,
+				long heapGrowthPerFragmentBytes) {
+			this.watchedCount = watchedCount;
+			this.collectedCount = collectedCount;
+			this.retained = retained;
+			this.heapGrowthBytes = heapGrowthBytes;
+			this.heapGrowthPerFragmentBytes = heapGrowthPerFragmentBytes;
+		}
+
+		public int getWatchedCount() {
+			return watchedCount;
+		}
+
+		public int getCollectedCount() {
+			return collectedCount;
+		}
+
+		public List<String> getRetained() {
+			return retained;
+		}
+
+		public long getHeapGrowthBytes() {
+			return heapGrowthBytes;
+		}
+
+		/**
+		 * @return the heap growth since the watcher was started divided by the number of fragments destroyed since
+		 */
+		public long getHeapGrowthPerFragmentBytes() {
+			return heapGrowthPerFragmentBytes;
+		}
+
+	}
+
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.debug;
+
+import android.content.Context;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.dpppt.android.sdk.InfectionStatus;
+import org.dpppt.android.sdk.TracingStatus;
+import org.dpppt.android.sdk.internal.database.models.ExposureDay;
+import org.dpppt.android.sdk.internal.util.DayDate;
+
+/**
+ * Binary format of a recorded status trace. The header stores the names of the SDK enums and lifecycle events are
+ * stored by name, so that a trace stays readable if the order of the enums changes. Every event starts with its type and
+ * the milliseconds since the previous event. The writer is only flushed when the app goes to the background, so the
+ * last event of a trace whose process was killed can be truncated, reading stops at the last complete event.
+ */
+public class StatusTrace {
+
+	private static final String TRACE_DIRECTORY = "status_traces";
+	private static final String TRACE_FILE_SUFFIX = ".trace";
+
+	private static final int MAGIC = 0x44505452; // "DPTR"
+	private static final int VERSION = 2;
+
+	private static final byte TYPE_STATUS = 1;
+	private static final byte TYPE_BLUETOOTH = 2;
+	private static final byte TYPE_LIFECYCLE = 3;
+
+	public static class Writer implements Closeable {
+
+		private final DataOutputStream out;
+		private long lastEventTime;
+
+		public Writer(File file, long startTime) throws IOException {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			lastEventTime = startTime;
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeLong(startTime);
+			writeEnumNames(InfectionStatus.values());
+			writeEnumNames(TracingStatus.ErrorState.values());
+		}
+
+		private void writeEnumNames(Enum<?>[] values) throws IOException {
+			out.writeByte(values.length);
+			for (Enum<?> value : values) {
+				out.writeUTF(value.name());
+			}
+		}
+
+		private void writeEventHeader(byte type, long time) throws IOException {
+			out.writeByte(type);
+			out.writeInt((int) (time - lastEventTime));
+			lastEventTime = time;
+		}
+
+		public void writeStatus(long time, TracingStatus status) throws IOException {
+			writeEventHeader(TYPE_STATUS, time);
+			out.writeInt(status.getNumberOfContacts());
+			out.writeBoolean(status.isAdvertising());
+			out.writeBoolean(status.isReceiving());
+			out.writeLong(status.getLastSyncDate());
+			out.writeByte(status.getInfectionStatus().ordinal());
+			List<ExposureDay> exposureDays = status.getExposureDays();
+			out.writeShort(exposureDays.size());
+			for (ExposureDay exposureDay : exposureDays) {
+				out.writeInt(exposureDay.getId());
+				out.writeLong(exposureDay.getExposedDate().getStartOfDayTimestamp());
+			}
+			Collection<TracingStatus.ErrorState> errors = status.getErrors();
+			out.writeByte(errors.size());
+			for (TracingStatus.ErrorState error : errors) {
+				out.writeByte(error.ordinal());
+			}
+		}
+
+		public void writeBluetoothEnabled(long time, boolean enabled) throws IOException {
+			writeEventHeader(TYPE_BLUETOOTH, time);
+			out.writeBoolean(enabled);
+		}
+
+		public void writeLifecycleEvent(long time, Lifecycle.Event event) throws IOException {
+			writeEventHeader(TYPE_LIFECYCLE, time);
+			out.writeUTF(event.name());
+		}
+
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+
+	}
+
+	public static File createTraceFile(Context context, long startTime) {
+		File directory = new File(context.getFilesDir(), TRACE_DIRECTORY);
+		directory.mkdirs();
+		return new File(directory, "status-" + startTime + TRACE_FILE_SUFFIX);
+	}
+
+	@Nullable
+	public static File getLatestTraceFile(Context context) {
+		File[] traces = new File(context.getFilesDir(), TRACE_DIRECTORY).listFiles(
+				(dir, name) -> name.endsWith(TRACE_FILE_SUFFIX));
+		File latest = null;
+		if (traces != null) {
+			for (File trace : traces) {
+				if (latest == null || trace.lastModified() > latest.lastModified()) {
+					latest = trace;
+				}
+			}
+		}
+		return latest;
+	}
+
+	public static List<Event> read(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+				throw new IOException("Not a status trace: " + file);
+			}
+			long time = in.readLong();
+			InfectionStatus[] infectionStatuses = readEnumNames(in, InfectionStatus.class);
+			TracingStatus.ErrorState[] errorStates = readEnumNames(in, TracingStatus.ErrorState.class);
+
+			List<Event> events = new ArrayList<>();
+			try {
+				while (true) {
+					byte type = in.readByte();
+					time += in.readInt();
+					switch (type) {
+						case TYPE_STATUS:
+							events.add(new Event(time, readStatus(in, infectionStatuses, errorStates), null, null));
+							break;
+						case TYPE_BLUETOOTH:
+							events.add(new Event(time, null, in.readBoolean(), null));
+							break;
+						case TYPE_LIFECYCLE:
+							Lifecycle.Event lifecycleEvent = readLifecycleEvent(in);
+							if (lifecycleEvent != null) events.add(new Event(time, null, null, lifecycleEvent));
+							break;
+						default:
+							throw new IOException("Unknown event type " + type);
+					}
+				}
+			} catch (EOFException e) {
+				// end of the trace, or an event that was cut off when the process was killed before it was flushed
+			}
+			return events;
+		}
+	}
+
+	@Nullable
+	private static Lifecycle.Event readLifecycleEvent(DataInputStream in) throws IOException {
+		String name = in.readUTF();
+		try {
+			return Lifecycle.Event.valueOf(name);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static <E extends Enum<E>> E[] readEnumNames(DataInputStream in, Class<E> enumClass) throws IOException {
+		int count = in.readByte();
+		@SuppressWarnings("unchecked")
+		E[] values = (E[]) Array.newInstance(enumClass, count);
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			try {
+				values[i] = Enum.valueOf(enumClass, name);
+			} catch (IllegalArgumentException e) {
+				// recorded with an SDK version that knew this value, the replay skips it
+				values[i] = null;
+			}
+		}
+		return values;
+	}
+
+	private static TracingStatus readStatus(DataInputStream in, InfectionStatus[] infectionStatuses,
+			TracingStatus.ErrorState[] errorStates) throws IOException {
+		int numberOfContacts = in.readInt();
+		boolean advertising = in.readBoolean();
+		boolean receiving = in.readBoolean();
+		long lastSyncDate = in.readLong();
+		InfectionStatus infectionStatus = infectionStatuses[in.readByte()];
+		int exposureDayCount = in.readShort();
+		List<ExposureDay> exposureDays = new ArrayList<>(exposureDayCount);
+		for (int i = 0; i < exposureDayCount; i++) {
+			int id = in.readInt();
+			long exposedDate = in.readLong();
+			exposureDays.add(new ExposureDay(id, new DayDate(exposedDate), exposedDate));
+		}
+		int errorCount = in.readByte();
+		Collection<TracingStatus.ErrorState> errors = EnumSet.noneOf(TracingStatus.ErrorState.class);
+		for (int i = 0; i < errorCount; i++) {
+			TracingStatus.ErrorState error = errorStates[in.readByte()];
+			if (error != null) errors.add(error);
+		}
+		return new TracingStatus(numberOfContacts, advertising, receiving, lastSyncDate,
+				infectionStatus != null ? infectionStatus : InfectionStatus.HEALTHY, exposureDays, errors);
+	}
+
+	public static class Event {
+
+		private final long time;
+		private final TracingStatus status;
+		private final Boolean bluetoothEnabled;
+		private final Lifecycle.Event lifecycleEvent;
+
+		private Event(long time, TracingStatus status, Boolean bluetoothEnabled, Lifecycle.Event lifecycleEvent) {
+			this.time = time;
+			this.status = status;
+			this.bluetoothEnabled = bluetoothEnabled;
+			this.lifecycleEvent = lifecycleEvent;
+		}
+
+		public long getTime() {
+			return time;
+		}
+
+		public TracingStatus getStatus() {
+			return status;
+		}
+
+		public Boolean getBluetoothEnabled() {
+			return bluetoothEnabled;
+		}
+
+		public Lifecycle.Event getLifecycleEvent() {
+			return lifecycleEvent;
+		}
+
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.debug;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.fragment.app.FragmentActivity;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.ViewModel;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.dpppt.android.app.viewmodel.TracingViewModel;
+import org.dpppt.android.sdk.TracingStatus;
+
+/**
+ * Records every status the {@link TracingViewModel} publishes, together with the Bluetooth state and the lifecycle
+ * events of the activity, into a {@link StatusTrace} file.
+ */
+public class StatusTraceRecorder extends ViewModel {
+
+	private static final String TAG = "StatusTraceRecorder";
+
+	private final MutableLiveData<Integer> recordedEventCountLiveData = new MutableLiveData<>(0);
+
+	private StatusTrace.Writer writer;
+	private File traceFile;
+	private TracingViewModel tracingViewModel;
+	private Lifecycle activityLifecycle;
+	private int recordedEventCount;
+
+	private final Observer<TracingStatus> statusObserver = status -> {
+		try {
+			writer.writeStatus(System.currentTimeMillis(), status);
+			onEventRecorded();
+		} catch (IOException e) {
+			onWriteError(e);
+		}
+	};
+
+	private final Observer<Boolean> bluetoothObserver = enabled -> {
+		try {
+			writer.writeBluetoothEnabled(System.currentTimeMillis(), enabled);
+			onEventRecorded();
+		} catch (IOException e) {
+			onWriteError(e);
+		}
+	};
+
+	private final LifecycleEventObserver lifecycleObserver = new LifecycleEventObserver() {
+		@Override
+		public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+			try {
+				writer.writeLifecycleEvent(System.currentTimeMillis(), event);
+				// the process may be killed in the background, so everything up to here should be on disk
+				if (event == Lifecycle.Event.ON_STOP) writer.flush();
+				onEventRecorded();
+			} catch (IOException e) {
+				onWriteError(e);
+			}
+			if (event == Lifecycle.Event.ON_DESTROY && activityLifecycle != null) {
+				activityLifecycle.removeObserver(this);
+				activityLifecycle = null;
+			}
+		}
+	};
+
+	public void start(FragmentActivity activity, TracingViewModel tracingViewModel) {
+		stop();
+		long startTime = System.currentTimeMillis();
+		traceFile = StatusTrace.createTraceFile(activity, startTime);
+		try {
+			writer = new StatusTrace.Writer(traceFile, startTime);
+		} catch (IOException e) {
+			Log.e(TAG, "Could not create " + traceFile, e);
+			writer = null;
+			return;
+		}
+		recordedEventCount = 0;
+		recordedEventCountLiveData.setValue(0);
+
+		this.tracingViewModel = tracingViewModel;
+		tracingViewModel.getTracingStatusLiveData().observeForever(statusObserver);
+		tracingViewModel.getBluetoothEnabledLiveData().observeForever(bluetoothObserver);
+		activityLifecycle = activity.getLifecycle();
+		activityLifecycle.addObserver(lifecycleObserver);
+	}
+
+	public void stop() {
+		if (writer == null) return;
+		tracingViewModel.getTracingStatusLiveData().removeObserver(statusObserver);
+		tracingViewModel.getBluetoothEnabledLiveData().removeObserver(bluetoothObserver);
+		if (activityLifecycle != null) activityLifecycle.removeObserver(lifecycleObserver);
+		tracingViewModel = null;
+		activityLifecycle = null;
+		try {
+			writer.close();
+		} catch (IOException e) {
+			Log.e(TAG, "Could not close " + traceFile, e);
+		}
+		writer = null;
+	}
+
+	public boolean isRecording() {
+		return writer != null;
+	}
+
+	public LiveData<Integer> getRecordedEventCountLiveData() {
+		return recordedEventCountLiveData;
+	}
+
+	private void onEventRecorded() {
+		recordedEventCountLiveData.setValue(++recordedEventCount);
+	}
+
+	private void onWriteError(IOException e) {
+		Log.e(TAG, "Could not write to " + traceFile, e);
+		stop();
+	}
+
+	@Override
+	protected void onCleared() {
+		stop();
+	}
+
+}
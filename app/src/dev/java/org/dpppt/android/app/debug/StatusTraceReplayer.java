@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.debug;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dpppt.android.app.viewmodel.TracingViewModel;
+
+/**
+ * Replays the events of a {@link StatusTrace}, one event per frame regardless of the recorded timing, so that a replay
+ * of the same trace always produces the same sequence of UI updates. Statuses and Bluetooth states are published through
+ * the {@link TracingViewModel}, lifecycle events are handed to a {@link LifecycleTarget}. For every event the time spent
+ * in the observers and the time until the following frame has been drawn are measured and written next to the trace as
+ * CSV.
+ */
+public class StatusTraceReplayer extends ViewModel {
+
+	private static final String TAG = "StatusTraceReplayer";
+
+	private final Handler handler = new Handler(Looper.getMainLooper());
+	private final MutableLiveData<Stats> statsLiveData = new MutableLiveData<>();
+
+	private TracingViewModel tracingViewModel;
+	private File traceFile;
+	private LifecycleTarget lifecycleTarget;
+	private List<StatusTrace.Event> events;
+	private int skippedEventCount;
+	private long[] dispatchTimesNanos;
+	private long[] frameTimesNanos;
+	private int position;
+	private long emissionStartNanos;
+	private boolean replaying = false;
+
+	private final Runnable measureAndEmitNextRunnable = this::measureAndEmitNext;
+	private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> {
+		// runs before this frame's traversal, the message posted here is handled once the frame has been drawn
+		handler.post(measureAndEmitNextRunnable);
+	};
+
+	/**
+	 * @param lifecycleTarget receives the recorded lifecycle events, they are skipped if it is null
+	 */
+	public boolean start(TracingViewModel tracingViewModel, File traceFile, @Nullable LifecycleTarget lifecycleTarget) {
+		stop();
+		List<StatusTrace.Event> recordedEvents;
+		try {
+			recordedEvents = StatusTrace.read(traceFile);
+		} catch (IOException e) {
+			Log.e(TAG, "Could not read " + traceFile, e);
+			return false;
+		}
+
+		events = new ArrayList<>();
+		skippedEventCount = 0;
+		for (StatusTrace.Event event : recordedEvents) {
+			if (event.getLifecycleEvent() != null && lifecycleTarget == null) {
+				skippedEventCount++;
+			} else {
+				events.add(event);
+			}
+		}
+		if (events.isEmpty()) return false;
+
+		this.tracingViewModel = tracingViewModel;
+		this.lifecycleTarget = lifecycleTarget;
+		this.traceFile = traceFile;
+		dispatchTimesNanos = new long[events.size()];
+		frameTimesNanos = new long[events.size()];
+		position = 0;
+		replaying = true;
+		emitNext();
+		return true;
+	}
+
+	public void stop() {
+		if (!replaying) return;
+		finish();
+	}
+
+	public boolean isReplaying() {
+		return replaying;
+	}
+
+	public LiveData<Stats> getStatsLiveData() {
+		return statsLiveData;
+	}
+
+	private void emitNext() {
+		StatusTrace.Event event = events.get(position);
+		emissionStartNanos = System.nanoTime();
+		if (event.getStatus() != null) {
+			tracingViewModel.setStatusOverride(event.getStatus());
+		} else if (event.getBluetoothEnabled() != null) {
+			tracingViewModel.setBluetoothEnabledOverride(event.getBluetoothEnabled());
+		} else {
+			lifecycleTarget.onLifecycleEvent(event.getLifecycleEvent());
+		}
+		dispatchTimesNanos[position] = System.nanoTime() - emissionStartNanos;
+		Choreographer.getInstance().postFrameCallback(frameCallback);
+	}
+
+	private void measureAndEmitNext() {
+		frameTimesNanos[position] = System.nanoTime() - emissionStartNanos;
+		position++;
+		statsLiveData.setValue(createStats());
+		if (position < events.size()) {
+			emitNext();
+		} else {
+			finish();
+		}
+	}
+
+	private void finish() {
+		replaying = false;
+		handler.removeCallbacks(measureAndEmitNextRunnable);
+		Choreographer.getInstance().removeFrameCallback(frameCallback);
+		tracingViewModel.setStatusOverride(null);
+		tracingViewModel.setBluetoothEnabledOverride(null);
+		tracingViewModel = null;
+		lifecycleTarget = null;
+		statsLiveData.setValue(createStats());
+		writeTimings();
+	}
+
+	private void writeTimings() {
+		File timingsFile = new File(traceFile.getPath() + ".timings.csv");
+		try (PrintWriter writer = new PrintWriter(new FileWriter(timingsFile))) {
+			writer.println("emission,dispatch_ns,frame_ns");
+			for (int i = 0; i < position; i++) {
+				writer.println(i + "," + dispatchTimesNanos[i] + "," + frameTimesNanos[i]);
+			}
+		} catch (IOException e) {
+			Log.e(TAG, "Could not write " + timingsFile, e);
+		}
+	}
+
+	private Stats createStats() {
+		long dispatchSum = 0, dispatchMax = 0, frameSum = 0, frameMax = 0;
+		for (int i = 0; i < position; i++) {
+			dispatchSum += dispatchTimesNanos[i];
+			dispatchMax = Math.max(dispatchMax, dispatchTimesNanos[i]);
+			frameSum += frameTimesNanos[i];
+			frameMax = Math.max(frameMax, frameTimesNanos[i]);
+		}
+		int count = Math.max(position, 1);
+		return new Stats(replaying, position, events.size(), skippedEventCount, dispatchSum / count, dispatchMax,
+				frameSum / count, frameMax);
+	}
+
+	@Override
+	protected void onCleared() {
+		stop();
+	}
+
+	public interface LifecycleTarget {
+
+		void onLifecycleEvent(@NonNull Lifecycle.Event event);
+
+	}
+
+	public static class Stats {
+
+		private final boolean replaying;
+		private final int emittedCount;
+		private final int eventCount;
+		private final int skippedEventCount;
+		private final long averageDispatchNanos;
+		private final long maxDispatchNanos;
+		private final long averageFrameNanos;
+		private final long maxFrameNanos;
+
+		private Stats(boolean replaying, int emittedCount, int eventCount, int skippedEventCount, long averageDispatchNanos,
+				long maxDispatchNanos, long averageFrameNanos, long maxFrameNanos) {
+			this.replaying = replaying;
+			this.emittedCount = emittedCount;
+			this.eventCount = eventCount;
+			this.skippedEventCount = skippedEventCount;
+			this.averageDispatchNanos = averageDispatchNanos;
+			this.maxDispatchNanos = maxDispatchNanos;
+			this.averageFrameNanos = averageFrameNanos;
+			this.maxFrameNanos = maxFrameNanos;
+		}
+
+		public boolean isReplaying() {
+			return replaying;
+		}
+
+		public int getEmittedCount() {
+			return emittedCount;
+		}
+
+		public int getEventCount() {
+			return eventCount;
+		}
+
+		public int getSkippedEventCount() {
+			return skippedEventCount;
+		}
+
+		public float getAverageDispatchMillis() {
+			return averageDispatchNanos / 1e6f;
+		}
+
+		public float getMaxDispatchMillis() {
+			return maxDispatchNanos / 1e6f;
+		}
+
+		public float getAverageFrameMillis() {
+			return averageFrameNanos / 1e6f;
+		}
+
+		public float getMaxFrameMillis() {
+			return maxFrameNanos / 1e6f;
+		}
+
+	}
+
+}
@@ -15,6 +15,7 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import org.dpppt.android.app.debug.debug.model.DebugAppState;
 import org.dpppt.android.app.main.model.NotificationState;
@@ -22,6 +23,8 @@ import org.dpppt.android.app.main.model.TracingState;
 import org.dpppt.android.app.main.model.TracingStatusInterface;
 import org.dpppt.android.app.storage.SecureStorage;
 import org.dpppt.android.app.util.DateUtils;
+import org.dpppt.android.app.util.ErrorStateHysteresis;
+import org.dpppt.android.app.util.SyncErrorDelay;
 import org.dpppt.android.app.util.TracingErrorStateHelper;
 import org.dpppt.android.sdk.InfectionStatus;
 import org.dpppt.android.sdk.TracingStatus;
@@ -31,12 +34,33 @@ import org.dpppt.android.sdk.internal.util.DayDate;
 
 public class TracingStatusWrapper implements TracingStatusInterface {
 
+	private static final long TRANSIENT_ERROR_MASK =
+			TracingErrorStateHelper.toMask(TracingStatus.ErrorState.BLE_SCANNER_ERROR) |
+					TracingErrorStateHelper.toMask(TracingStatus.ErrorState.BLE_ADVERTISING_ERROR);
+	private static final long TRANSIENT_ERROR_ONSET_DELAY = TimeUnit.SECONDS.toMillis(30);
+	private static final long TRANSIENT_ERROR_RELEASE_DELAY = TimeUnit.SECONDS.toMillis(10);
+
 	private DebugAppState debugAppState = DebugAppState.NONE;
 	private TracingStatus status;
+	private final ErrorStateHysteresis errorStateHysteresis =
+			new ErrorStateHysteresis(TRANSIENT_ERROR_MASK, TRANSIENT_ERROR_ONSET_DELAY, TRANSIENT_ERROR_RELEASE_DELAY);
+	private long errorMask = 0;
 
 	@Override
 	public void setStatus(TracingStatus status) {
 		this.status = status;
+		errorMask = errorStateHysteresis.filter(TracingErrorStateHelper.toMask(status.getErrors()), System.currentTimeMillis());
+	}
+
+	@Override
+	public long getNextErrorStateUpdateTime() {
+		long nextUpdateTime = errorStateHysteresis.getNextUpdateTime();
+		if (status != null && getReportErrorState() == null &&
+				TracingErrorStateHelper.getErrorStateForReports(errorMask) != null) {
+			// the pending sync error is reported once the last successful sync is old enough
+			nextUpdateTime = Math.min(nextUpdateTime, SyncErrorDelay.getEndTime(status.getLastSyncDate()));
+		}
+		return nextUpdateTime;
 	}
 
 	@Override
@@ -83,22 +107,17 @@ public class TracingStatusWrapper implements TracingStatusInterface {
 
 	@Override
 	public TracingStatus.ErrorState getTracingErrorState() {
-		boolean hasError = status.getErrors().size() > 0;
-		if (hasError) {
-			return TracingErrorStateHelper.getErrorState(status.getErrors());
-		}
-		return null;
+		return TracingErrorStateHelper.getErrorState(errorMask);
 	}
 
 	@Override
 	public TracingStatus.ErrorState getReportErrorState() {
-		boolean hasError = status.getErrors().size() > 0;
-		if (hasError) {
-			TracingStatus.ErrorState errorState = TracingErrorStateHelper.getErrorStateForReports(status.getErrors());
+		if (errorMask != 0) {
+			TracingStatus.ErrorState errorState = TracingErrorStateHelper.getErrorStateForReports(errorMask);
 			if (TracingStatus.ErrorState.SYNC_ERROR_DATABASE.equals(errorState)) {
 				return errorState;
 			} else {
-				if (DateUtils.getDaysDiff(status.getLastSyncDate()) > 1) {
+				if (SyncErrorDelay.isOver(status.getLastSyncDate(), System.currentTimeMillis())) {
 					return errorState;
 				}
 			}
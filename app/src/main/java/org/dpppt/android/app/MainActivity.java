@@ -14,13 +14,17 @@ import android.net.Uri;
 import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
 import androidx.lifecycle.ViewModelProvider;
 
 import org.dpppt.android.app.main.HomeFragment;
 import org.dpppt.android.app.onboarding.OnboardingActivity;
 import org.dpppt.android.app.reports.ReportsFragment;
 import org.dpppt.android.app.storage.SecureStorage;
+import org.dpppt.android.app.util.DeviceCapabilityMonitor;
 import org.dpppt.android.app.util.InfoDialog;
 import org.dpppt.android.app.viewmodel.TracingViewModel;
 
@@ -86,6 +90,8 @@ public class MainActivity extends FragmentActivity {
 	public void onResume() {
 		super.onResume();
 
+		DeviceCapabilityMonitor.getInstance(this).invalidatePermissionState();
+
 		checkIntentForActions();
 
 		if (!consumedExposedIntent) {
@@ -127,9 +133,16 @@ public class MainActivity extends FragmentActivity {
 	}
 
 	private void gotoReportsFragment() {
-		getSupportFragmentManager()
-				.beginTransaction()
-				.replace(R.id.main_fragment_container, ReportsFragment.newInstance())
+		FragmentManager fragmentManager = getSupportFragmentManager();
+		// the home fragment may still be pending when this runs right after onCreate
+		fragmentManager.executePendingTransactions();
+		Fragment currentFragment = fragmentManager.findFragmentById(R.id.main_fragment_container);
+		FragmentTransaction transaction = fragmentManager.beginTransaction()
+				.setCustomAnimations(R.anim.slide_enter, R.anim.slide_exit, R.anim.slide_pop_enter, R.anim.slide_pop_exit);
+		if (currentFragment != null) {
+			transaction.hide(currentFragment);
+		}
+		transaction.add(R.id.main_fragment_container, ReportsFragment.newInstance())
 				.addToBackStack(ReportsFragment.class.getCanonicalName())
 				.commit();
 	}
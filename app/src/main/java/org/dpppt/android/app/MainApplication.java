@@ -10,99 +10,66 @@
 package org.dpppt.android.app;
 
 import android.app.Application;
-import android.app.Notification;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.os.Build;
-import androidx.core.app.NotificationCompat;
+import android.content.IntentFilter;
 
 import java.security.PublicKey;
-
-import org.dpppt.android.app.storage.SecureStorage;
-import org.dpppt.android.app.util.NotificationUtil;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.dpppt.android.app.storage.ContactHistory;
+import org.dpppt.android.app.storage.StatusSnapshot;
+import org.dpppt.android.app.util.BackendCertificatePinner;
+import org.dpppt.android.app.util.ContactNotificationPipeline;
+import org.dpppt.android.app.util.DateUtils;
+import org.dpppt.android.app.util.StringTemplate;
 import org.dpppt.android.sdk.DP3T;
-import org.dpppt.android.sdk.InfectionStatus;
 import org.dpppt.android.sdk.TracingStatus;
-import org.dpppt.android.sdk.internal.database.models.ExposureDay;
 import org.dpppt.android.sdk.internal.util.ProcessUtil;
 import org.dpppt.android.sdk.util.SignatureUtil;
 
-import okhttp3.CertificatePinner;
-
 public class MainApplication extends Application {
 
+	private final ExecutorService statusExecutor = Executors.newSingleThreadExecutor();
+
 	@Override
 	public void onCreate() {
 		super.onCreate();
 
 		if (ProcessUtil.isMainProcess(this)) {
 			registerReceiver(contactUpdateReceiver, DP3T.getUpdateIntentFilter());
+			IntentFilter dateFormatFilter = new IntentFilter();
+			dateFormatFilter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+			dateFormatFilter.addAction(Intent.ACTION_LOCALE_CHANGED);
+			registerReceiver(dateFormatChangeReceiver, dateFormatFilter);
 
 			PublicKey publicKey = SignatureUtil.getPublicKeyFromBase64OrThrow(
 					BuildConfig.BUCKET_PUBLIC_KEY);
 			DP3T.init(this, "org.dpppt.demo", true, publicKey);
-			CertificatePinner certificatePinner = new CertificatePinner.Builder()
-					.add("demo.dpppt.org", "sha256/YLh1dUR9y6Kja30RrAn7JKnbQG/uEtLMkBgFF2Fuihg=")
-					.build();
-			DP3T.setCertificatePinner(certificatePinner);
+			DP3T.setCertificatePinner(BackendCertificatePinner.create());
 		}
 	}
 
-	private BroadcastReceiver contactUpdateReceiver = new BroadcastReceiver() {
+	private BroadcastReceiver dateFormatChangeReceiver = new BroadcastReceiver() {
 		@Override
 		public void onReceive(Context context, Intent intent) {
-			SecureStorage secureStorage = SecureStorage.getInstance(context);
-			TracingStatus status = DP3T.getStatus(context);
-			if (status.getInfectionStatus() == InfectionStatus.EXPOSED) {
-				ExposureDay exposureDay = null;
-				long dateNewest = 0;
-				for (ExposureDay day : status.getExposureDays()) {
-					if (day.getExposedDate().getStartOfDayTimestamp() > dateNewest) {
-						exposureDay = day;
-						dateNewest = day.getExposedDate().getStartOfDayTimestamp();
-					}
-				}
-				if (exposureDay != null && secureStorage.getLastShownContactId() != exposureDay.getId()) {
-					createNewContactNotifaction(context, exposureDay.getId());
-				}
-			}
+			DateUtils.invalidateCaches();
+			StringTemplate.invalidateCache();
 		}
 	};
 
-	private void createNewContactNotifaction(Context context, int contactId) {
-		SecureStorage secureStorage = SecureStorage.getInstance(context);
-
-		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-			NotificationUtil.createNotificationChannel(context);
+	private BroadcastReceiver contactUpdateReceiver = new BroadcastReceiver() {
+		@Override
+		public void onReceive(Context context, Intent intent) {
+			ContactNotificationPipeline.getInstance(context).onStatusUpdated();
+			statusExecutor.execute(() -> {
+				TracingStatus status = DP3T.getStatus(context);
+				StatusSnapshot.getInstance(context).update(status);
+				ContactHistory.getInstance(context).update(status.getNumberOfContacts());
+			});
 		}
-
-		Intent resultIntent = new Intent(context, MainActivity.class);
-		resultIntent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
-		resultIntent.setAction(MainActivity.ACTION_GOTO_REPORTS);
-
-		PendingIntent pendingIntent =
-				PendingIntent.getActivity(context, 0, resultIntent, PendingIntent.FLAG_UPDATE_CURRENT);
-
-		Notification notification =
-				new NotificationCompat.Builder(context, NotificationUtil.NOTIFICATION_CHANNEL_ID)
-						.setContentTitle(context.getString(R.string.push_exposed_title))
-						.setContentText(context.getString(R.string.push_exposed_text))
-						.setPriority(NotificationCompat.PRIORITY_MAX)
-						.setSmallIcon(R.drawable.ic_begegnungen)
-						.setContentIntent(pendingIntent)
-						.setAutoCancel(true)
-						.build();
-
-		NotificationManager notificationManager =
-				(NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
-		notificationManager.notify(NotificationUtil.NOTIFICATION_ID_CONTACT, notification);
-
-		secureStorage.setHotlineCallPending(true);
-		secureStorage.setReportsHeaderAnimationPending(true);
-		secureStorage.setLastShownContactId(contactId);
-	}
+	};
 
 }
@@ -20,8 +20,10 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
 import org.dpppt.android.app.R;
+import org.dpppt.android.app.contacts.views.ContactHistoryView;
 import org.dpppt.android.app.main.TracingBoxFragment;
 import org.dpppt.android.app.main.views.HeaderView;
+import org.dpppt.android.app.util.HeaderScrollEffect;
 import org.dpppt.android.app.viewmodel.TracingViewModel;
 
 
@@ -70,6 +72,7 @@ public class ContactsFragment extends Fragment {
 		});
 		setupScrollBehavior();
 		setupTracingView();
+		setupContactHistory(view);
 	}
 
 	private void setupTracingView() {
@@ -82,6 +85,11 @@ public class ContactsFragment extends Fragment {
 		});
 	}
 
+	private void setupContactHistory(View view) {
+		ContactHistoryView historyView = view.findViewById(R.id.contacts_history_view);
+		tracingViewModel.getContactHistoryLiveData().observe(getViewLifecycleOwner(), historyView::setValues);
+	}
+
 	@Override
 	public void onResume() {
 		super.onResume();
@@ -98,20 +106,8 @@ public class ContactsFragment extends Fragment {
 
 		int scrollRangePx = getResources().getDimensionPixelSize(R.dimen.top_item_padding);
 		int translationRangePx = -getResources().getDimensionPixelSize(R.dimen.spacing_huge);
-		scrollView.setOnScrollChangeListener((v, scrollX, scrollY, oldScrollX, oldScrollY) -> {
-			float progress = computeScrollAnimProgress(scrollY, scrollRangePx);
-			headerView.setAlpha(1 - progress);
-			headerView.setTranslationY(progress * translationRangePx);
-		});
-		scrollView.post(() -> {
-			float progress = computeScrollAnimProgress(scrollView.getScrollY(), scrollRangePx);
-			headerView.setAlpha(1 - progress);
-			headerView.setTranslationY(progress * translationRangePx);
-		});
-	}
-
-	private float computeScrollAnimProgress(int scrollY, int scrollRange) {
-		return Math.min(scrollY, scrollRange) / (float) scrollRange;
+		HeaderScrollEffect.attach(scrollView, headerView, scrollRangePx, translationRangePx,
+				headerView.getAnimationView());
 	}
 
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.contacts.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.View;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import org.dpppt.android.app.R;
+import org.dpppt.android.app.storage.ContactHistory;
+
+/**
+ * Sparkline of the daily contact counts of the {@link ContactHistory}. The paths are rebuilt when the values or the size
+ * change, drawing only replays them.
+ */
+public class ContactHistoryView extends View {
+
+	private final int[] values = new int[ContactHistory.CAPACITY];
+
+	private final Path linePath = new Path();
+	private final Path fillPath = new Path();
+	private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private final Paint dotPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+	private float dotRadius;
+	private float lastPointX;
+	private float lastPointY;
+
+	public ContactHistoryView(Context context) {
+		super(context);
+		init(context);
+	}
+
+	public ContactHistoryView(Context context, @Nullable AttributeSet attrs) {
+		super(context, attrs);
+		init(context);
+	}
+
+	public ContactHistoryView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+		super(context, attrs, defStyleAttr);
+		init(context);
+	}
+
+	private void init(Context context) {
+		float density = getResources().getDisplayMetrics().density;
+		dotRadius = 3 * density;
+
+		linePaint.setStyle(Paint.Style.STROKE);
+		linePaint.setStrokeWidth(getResources().getDimension(R.dimen.stroke_width_default));
+		linePaint.setStrokeJoin(Paint.Join.ROUND);
+		linePaint.setStrokeCap(Paint.Cap.ROUND);
+		linePaint.setColor(ContextCompat.getColor(context, R.color.blue_main));
+
+		fillPaint.setStyle(Paint.Style.FILL);
+		fillPaint.setColor(ContextCompat.getColor(context, R.color.status_blue_bg));
+
+		dotPaint.setStyle(Paint.Style.FILL);
+		dotPaint.setColor(ContextCompat.getColor(context, R.color.blue_main));
+	}
+
+	/**
+	 * @param dailyCounts the counts per day, oldest first, as published by {@link ContactHistory}
+	 */
+	public void setValues(@NonNull int[] dailyCounts) {
+		int offset = Math.max(0, dailyCounts.length - values.length);
+		boolean changed = false;
+		for (int i = 0; i < values.length; i++) {
+			int value = offset + i < dailyCounts.length ? dailyCounts[offset + i] : 0;
+			if (values[i] != value) {
+				values[i] = value;
+				changed = true;
+			}
+		}
+		if (changed) {
+			updatePaths();
+			invalidate();
+		}
+	}
+
+	@Override
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+		updatePaths();
+	}
+
+	private void updatePaths() {
+		linePath.reset();
+		fillPath.reset();
+		if (getWidth() == 0 || getHeight() == 0) return;
+
+		int max = 0;
+		for (int value : values) {
+			max = Math.max(max, value);
+		}
+
+		// inset by the dot radius so neither the line nor the dot of the newest day are clipped
+		float left = getPaddingLeft() + dotRadius;
+		float top = getPaddingTop() + dotRadius;
+		float right = getWidth() - getPaddingRight() - dotRadius;
+		float bottom = getHeight() - getPaddingBottom() - dotRadius;
+		float stepX = (right - left) / (values.length - 1);
+		float scaleY = max > 0 ? (bottom - top) / max : 0;
+
+		for (int i = 0; i < values.length; i++) {
+			float x = left + i * stepX;
+			float y = bottom - values[i] * scaleY;
+			if (i == 0) {
+				linePath.moveTo(x, y);
+			} else {
+				linePath.lineTo(x, y);
+			}
+			lastPointX = x;
+			lastPointY = y;
+		}
+		fillPath.set(linePath);
+		fillPath.lineTo(right, bottom);
+		fillPath.lineTo(left, bottom);
+		fillPath.close();
+	}
+
+	@Override
+	protected void onDraw(Canvas canvas) {
+		super.onDraw(canvas);
+		canvas.drawPath(fillPath, fillPaint);
+		canvas.drawPath(linePath, linePaint);
+		canvas.drawCircle(lastPointX, lastPointY, dotRadius, dotPaint);
+	}
+
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.inform;
+
+/**
+ * Checks an authorization code locally before it is sent to the backend. Implementations must not depend on the Android
+ * framework, so that they can be exercised on the JVM.
+ */
+public interface AuthCodeValidator {
+
+	/**
+	 * @return true if the input has the expected length and only contains digits
+	 */
+	boolean isComplete(CharSequence code);
+
+	/**
+	 * @return true if the input is complete and passes the check digit verification
+	 */
+	boolean isValid(CharSequence code);
+
+}
@@ -9,6 +9,9 @@
  */
 package org.dpppt.android.app.inform;
 
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
@@ -16,27 +19,29 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
+import androidx.work.WorkInfo;
 
 import java.util.Calendar;
-import java.util.Date;
+import java.util.List;
 
 import org.dpppt.android.app.R;
 import org.dpppt.android.app.inform.views.ChainedEditText;
 import org.dpppt.android.app.storage.SecureStorage;
 import org.dpppt.android.app.util.InfoDialog;
-import org.dpppt.android.sdk.DP3T;
-import org.dpppt.android.sdk.backend.ResponseCallback;
-import org.dpppt.android.sdk.backend.models.ExposeeAuthMethodJson;
 
 public class InformFragment extends Fragment {
 
 	private static final long TIMEOUT_VALID_CODE = 1000 * 60 * 5;
 
-	private static final String REGEX_CODE_PATTERN = "\\d{" + ChainedEditText.NUM_CHARACTERS + "}";
+	private static final AuthCodeValidator AUTH_CODE_VALIDATOR = new LuhnAuthCodeValidator(ChainedEditText.NUM_CHARACTERS);
 
 	private ChainedEditText authCodeInput;
 	private AlertDialog progressDialog;
+	private boolean awaitingResult = false;
+	private boolean queuedMessageShown = false;
 	private Button buttonSend;
+	private View invalidCodeErrorView;
+	private View inputTextView;
 
 	private SecureStorage secureStorage;
 
@@ -62,10 +67,16 @@ public class InformFragment extends Fragment {
 		((InformActivity) requireActivity()).allowBackButton(true);
 		buttonSend = view.findViewById(R.id.trigger_fragment_button_trigger);
 		authCodeInput = view.findViewById(R.id.trigger_fragment_input);
+		invalidCodeErrorView = view.findViewById(R.id.inform_invalid_code_error);
+		inputTextView = view.findViewById(R.id.inform_input_text);
 		authCodeInput.addTextChangedListener(new ChainedEditText.ChainedEditTextListener() {
 			@Override
 			public void onTextChanged(String input) {
-				buttonSend.setEnabled(input.matches(REGEX_CODE_PATTERN));
+				boolean isValid = AUTH_CODE_VALIDATOR.isValid(input);
+				boolean isRejected = !isValid && AUTH_CODE_VALIDATOR.isComplete(input);
+				buttonSend.setEnabled(isValid);
+				invalidCodeErrorView.setVisibility(isRejected ? View.VISIBLE : View.GONE);
+				inputTextView.setVisibility(isRejected ? View.GONE : View.VISIBLE);
 			}
 
 			@Override
@@ -78,7 +89,10 @@ public class InformFragment extends Fragment {
 		String lastCode = secureStorage.getLastInformCode();
 		String lastToken = secureStorage.getLastInformToken();
 
-		if (System.currentTimeMillis() - lastRequestTime < TIMEOUT_VALID_CODE) {
+		if (InformReportOutbox.isPending(getContext())) {
+			authCodeInput.setText(lastCode);
+			awaitingResult = true;
+		} else if (System.currentTimeMillis() - lastRequestTime < TIMEOUT_VALID_CODE) {
 			authCodeInput.setText(lastCode);
 		} else if (lastCode != null || lastToken != null) {
 			secureStorage.clearInformTimeAndCodeAndToken();
@@ -89,42 +103,85 @@ public class InformFragment extends Fragment {
 			String authCode = authCodeInput.getText();
 
 			progressDialog = createProgressDialog();
+			awaitingResult = true;
+			queuedMessageShown = false;
 			Calendar calendar = Calendar.getInstance();
 			calendar.add(Calendar.DATE, -14);
-			informExposed(calendar.getTime(), authCode);
+			InformReportOutbox.enqueue(getContext(), authCode, calendar.getTimeInMillis());
 		});
 
+		InformReportOutbox.getWorkInfoLiveData(getContext()).observe(getViewLifecycleOwner(), this::onReportWorkInfoChanged);
+
 		view.findViewById(R.id.cancel_button).setOnClickListener(v -> {
 			getActivity().finish();
 		});
 	}
 
-	private void informExposed(Date onsetDate, String authCode) {
-		DP3T.sendIAmInfected(getContext(), onsetDate,
-				new ExposeeAuthMethodJson(authCode), new ResponseCallback<Void>() {
-					@Override
-					public void onSuccess(Void response) {
-						if (progressDialog != null && progressDialog.isShowing()) {
-							progressDialog.dismiss();
-						}
-						secureStorage.clearInformTimeAndCodeAndToken();
-						getParentFragmentManager().beginTransaction()
-								.setCustomAnimations(R.anim.slide_enter, R.anim.slide_exit, R.anim.slide_pop_enter,
-										R.anim.slide_pop_exit)
-								.replace(R.id.inform_fragment_container, ThankYouFragment.newInstance())
-								.commit();
-					}
-
-					@Override
-					public void onError(Throwable throwable) {
-						if (progressDialog != null && progressDialog.isShowing()) {
-							progressDialog.dismiss();
-						}
-						showErrorDialog(getString(R.string.network_error), null);
-						throwable.printStackTrace();
-						buttonSend.setEnabled(true);
-					}
-				});
+	private void onReportWorkInfoChanged(List<WorkInfo> workInfos) {
+		if (!awaitingResult || workInfos == null || workInfos.isEmpty()) return;
+
+		WorkInfo workInfo = workInfos.get(0);
+		for (WorkInfo info : workInfos) {
+			// a replaced request can still be listed next to the current one
+			if (!info.getState().isFinished()) {
+				workInfo = info;
+				break;
+			}
+		}
+		switch (workInfo.getState()) {
+			case ENQUEUED:
+			case RUNNING:
+			case BLOCKED:
+				buttonSend.setEnabled(false);
+				boolean waiting = workInfo.getState() == WorkInfo.State.ENQUEUED &&
+						(workInfo.getRunAttemptCount() > 0 || !isOnline());
+				if (waiting && !queuedMessageShown) {
+					// the report waits for the network or its next retry and is sent without the user, no need to wait here
+					queuedMessageShown = true;
+					dismissProgressDialog();
+					showErrorDialog(getString(R.string.inform_report_queued), null);
+				}
+				break;
+			case SUCCEEDED:
+				awaitingResult = false;
+				dismissProgressDialog();
+				getParentFragmentManager().beginTransaction()
+						.setCustomAnimations(R.anim.slide_enter, R.anim.slide_exit, R.anim.slide_pop_enter,
+								R.anim.slide_pop_exit)
+						.replace(R.id.inform_fragment_container, ThankYouFragment.newInstance())
+						.commit();
+				break;
+			case FAILED:
+			case CANCELLED:
+				awaitingResult = false;
+				dismissProgressDialog();
+				if (workInfo.getOutputData().getBoolean(InformReportWorker.OUTPUT_REJECTED, false)) {
+					// the code itself was refused, let the user correct it instead of offering to send it again
+					invalidCodeErrorView.setVisibility(View.VISIBLE);
+					inputTextView.setVisibility(View.GONE);
+					buttonSend.setEnabled(false);
+					authCodeInput.requestFocus();
+					break;
+				}
+				if (!queuedMessageShown) {
+					showErrorDialog(getString(R.string.network_error), null);
+				}
+				buttonSend.setEnabled(AUTH_CODE_VALIDATOR.isValid(authCodeInput.getText()));
+				break;
+		}
+	}
+
+	private boolean isOnline() {
+		ConnectivityManager connectivityManager =
+				(ConnectivityManager) requireContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+		NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(connectivityManager.getActiveNetwork());
+		return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+	}
+
+	private void dismissProgressDialog() {
+		if (progressDialog != null && progressDialog.isShowing()) {
+			progressDialog.dismiss();
+		}
 	}
 
 	@Override
@@ -139,6 +196,12 @@ public class InformFragment extends Fragment {
 				.show();
 	}
 
+	@Override
+	public void onDestroyView() {
+		super.onDestroyView();
+		dismissProgressDialog();
+	}
+
 	private void showErrorDialog(String error, @Nullable String errorCode) {
 		InfoDialog.newInstanceWithDetail(error, errorCode).show(getChildFragmentManager(), InfoDialog.class.getCanonicalName());
 	}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.inform;
+
+import android.content.Context;
+import androidx.lifecycle.LiveData;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dpppt.android.app.storage.SecureStorage;
+
+/**
+ * Persists an infection report and hands it to {@link InformReportWorker}, which submits it once the device is online
+ * and retries with exponential backoff, also across process death.
+ */
+public class InformReportOutbox {
+
+	static final String WORK_NAME = "org.dpppt.android.app.inform.InformReportOutbox";
+	private static final long INITIAL_BACKOFF_SECONDS = 30;
+
+	public static void enqueue(Context context, String authCode, long onsetDate) {
+		SecureStorage.getInstance(context).saveInformRequest(authCode, onsetDate);
+		WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.REPLACE, createWorkRequest());
+	}
+
+	static OneTimeWorkRequest createWorkRequest() {
+		Constraints constraints = new Constraints.Builder()
+				.setRequiredNetworkType(NetworkType.CONNECTED)
+				.build();
+		return new OneTimeWorkRequest.Builder(InformReportWorker.class)
+				.setConstraints(constraints)
+				.setBackoffCriteria(BackoffPolicy.EXPONENTIAL, INITIAL_BACKOFF_SECONDS, TimeUnit.SECONDS)
+				.build();
+	}
+
+	public static boolean isPending(Context context) {
+		return SecureStorage.getInstance(context).isInformRequestPending();
+	}
+
+	public static LiveData<List<WorkInfo>> getWorkInfoLiveData(Context context) {
+		return WorkManager.getInstance(context).getWorkInfosForUniqueWorkLiveData(WORK_NAME);
+	}
+
+}
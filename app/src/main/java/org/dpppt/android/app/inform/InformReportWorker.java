@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.inform;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.dpppt.android.app.storage.SecureStorage;
+import org.dpppt.android.sdk.DP3T;
+import org.dpppt.android.sdk.InfectionStatus;
+import org.dpppt.android.sdk.backend.ResponseCallback;
+import org.dpppt.android.sdk.backend.models.ExposeeAuthMethodJson;
+import org.dpppt.android.sdk.internal.backend.StatusCodeException;
+
+public class InformReportWorker extends Worker {
+
+	/**
+	 * Output flag of a failed report that the backend refused, e.g. because the code is wrong or has expired. Sending it
+	 * again would not help, the user has to enter a new code.
+	 */
+	static final String OUTPUT_REJECTED = "rejected";
+
+	static final int MAX_ATTEMPTS = 5;
+	private static final String TAG = "InformReportWorker";
+
+	private static final ReportSender DP3T_SENDER = new ReportSender() {
+		@Override
+		public boolean isReportedAsInfected(Context context) {
+			return DP3T.getStatus(context).getInfectionStatus() == InfectionStatus.INFECTED;
+		}
+
+		@Override
+		public void send(Context context, Date onsetDate, String authCode, ResponseCallback<Void> callback) {
+			DP3T.sendIAmInfected(context, onsetDate, new ExposeeAuthMethodJson(authCode), callback);
+		}
+	};
+
+	private static ReportSender reportSender = DP3T_SENDER;
+
+	public InformReportWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+		super(context, workerParams);
+	}
+
+	@NonNull
+	@Override
+	public Result doWork() {
+		Context context = getApplicationContext();
+		SecureStorage secureStorage = SecureStorage.getInstance(context);
+
+		String authCode = secureStorage.getLastInformCode();
+		if (!secureStorage.isInformRequestPending() || authCode == null) {
+			secureStorage.setInformRequestPending(false);
+			return Result.failure();
+		}
+		if (reportSender.isReportedAsInfected(context)) {
+			// an earlier attempt reached the backend after all, the code is single-use and must not be sent again
+			secureStorage.clearInformTimeAndCodeAndToken();
+			secureStorage.setInformRequestPending(false);
+			return Result.success();
+		}
+		Date onsetDate = new Date(secureStorage.getLastInformOnsetDate());
+
+		CountDownLatch latch = new CountDownLatch(1);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		reportSender.send(context, onsetDate, authCode, new ResponseCallback<Void>() {
+			@Override
+			public void onSuccess(Void response) {
+				latch.countDown();
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				error.set(throwable);
+				latch.countDown();
+			}
+		});
+
+		// no timeout of our own: giving up while the call is still running could send the code twice, the backend
+		// client's call timeouts make sure the callback comes
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			return Result.retry();
+		}
+
+		if (error.get() == null) {
+			secureStorage.clearInformTimeAndCodeAndToken();
+			secureStorage.setInformRequestPending(false);
+			return Result.success();
+		}
+
+		Throwable throwable = error.get();
+		Log.e(TAG, "Could not send infection report", throwable);
+		if (isRejected(throwable)) {
+			secureStorage.clearInformTimeAndCodeAndToken();
+			secureStorage.setInformRequestPending(false);
+			return Result.failure(new Data.Builder().putBoolean(OUTPUT_REJECTED, true).build());
+		}
+		if (!isRetryable(throwable) || getRunAttemptCount() + 1 >= MAX_ATTEMPTS) {
+			secureStorage.setInformRequestPending(false);
+			return Result.failure();
+		}
+		return Result.retry();
+	}
+
+	/**
+	 * @return true for errors that may go away by themselves: no connection, no response in time or a server error
+	 */
+	static boolean isRetryable(Throwable throwable) {
+		if (throwable instanceof IOException) {
+			return true;
+		}
+		return throwable instanceof StatusCodeException && ((StatusCodeException) throwable).getCode() >= 500;
+	}
+
+	/**
+	 * @return true if the backend refused the report itself (4xx), which includes an invalid or expired auth code
+	 */
+	static boolean isRejected(Throwable throwable) {
+		if (!(throwable instanceof StatusCodeException)) {
+			return false;
+		}
+		int code = ((StatusCodeException) throwable).getCode();
+		return code >= 400 && code < 500;
+	}
+
+	@VisibleForTesting
+	static void setReportSender(@Nullable ReportSender sender) {
+		reportSender = sender != null ? sender : DP3T_SENDER;
+	}
+
+	/**
+	 * The calls to the SDK, replaceable in tests.
+	 */
+	interface ReportSender {
+
+		boolean isReportedAsInfected(Context context);
+
+		void send(Context context, Date onsetDate, String authCode, ResponseCallback<Void> callback);
+
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.inform;
+
+/**
+ * Validates numeric codes whose last digit is a Luhn (mod 10) check digit over the preceding digits. Catches all single
+ * digit typos and most transpositions of adjacent digits without a round-trip to the auth server.
+ */
+public class LuhnAuthCodeValidator implements AuthCodeValidator {
+
+	private final int length;
+
+	public LuhnAuthCodeValidator(int length) {
+		this.length = length;
+	}
+
+	@Override
+	public boolean isComplete(CharSequence code) {
+		if (code == null || code.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			char c = code.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isValid(CharSequence code) {
+		if (!isComplete(code)) {
+			return false;
+		}
+		int sum = 0;
+		boolean doubleDigit = false;
+		for (int i = length - 1; i >= 0; i--) {
+			int digit = code.charAt(i) - '0';
+			if (doubleDigit) {
+				digit *= 2;
+				if (digit > 9) {
+					digit -= 9;
+				}
+			}
+			sum += digit;
+			doubleDigit = !doubleDigit;
+		}
+		return sum % 10 == 0;
+	}
+
+}
@@ -11,36 +11,73 @@ package org.dpppt.android.app.inform.views;
 
 import android.content.Context;
 import android.content.res.Configuration;
-import android.graphics.Color;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
 import android.text.Editable;
+import android.text.InputFilter;
 import android.text.InputType;
+import android.text.Selection;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
 import android.text.TextWatcher;
+import android.text.method.DigitsKeyListener;
 import android.util.AttributeSet;
-import android.view.LayoutInflater;
+import android.view.KeyEvent;
 import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityManager;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.inputmethod.BaseInputConnection;
 import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.EditText;
-import android.widget.TextView;
 import androidx.annotation.Nullable;
-import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.core.content.ContextCompat;
+import androidx.core.content.res.ResourcesCompat;
 
 import java.util.HashSet;
 import java.util.Set;
 
 import org.dpppt.android.app.R;
 
-
-public class ChainedEditText extends ConstraintLayout {
+/**
+ * Code input that draws all of its cells itself and acts as its own input method target. The entered code is mirrored
+ * into a {@code char[]} so that a keystroke only invalidates the cells whose content or selection changed. For
+ * accessibility services the view presents itself as an editable text field holding the entered code.
+ */
+public class ChainedEditText extends View {
 
 	public static final int NUM_CHARACTERS = 12;
-	private static final String ID_TEXT_FIELD = "chained_edit_text_view_";
+	private static final int GROUP_SIZE = 3;
+
+	private static final int[] STATE_SELECTED = new int[] { android.R.attr.state_selected };
+	private static final int[] STATE_DEFAULT = new int[0];
+
+	private final Editable editable = new SpannableStringBuilder();
+	private final char[] code = new char[NUM_CHARACTERS];
+	private int selectedCell = -1;
+
+	private final float[] cellLefts = new float[NUM_CHARACTERS];
+	private final Rect cellRect = new Rect();
+	private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private Drawable cellBackground;
+	private Drawable selectedCellBackground;
 
-	private EditText shadowEditText;
-	private View textViewGroup;
-	private TextView[] textViews = new TextView[NUM_CHARACTERS];
+	private float fontScale;
+	private int cellWidth;
+	private int cellHeight;
+	private int cellSpacing;
+	private int groupSpacing;
+	private int contentPadding;
+	private float cellsTop;
+	private float textBaselineOffset;
 
 	private Set<ChainedEditTextListener> chainedEditTextListeners = new HashSet<>();
+	private AccessibilityManager accessibilityManager;
 
 	public ChainedEditText(Context context) {
 		super(context);
@@ -58,104 +95,267 @@ public class ChainedEditText extends ConstraintLayout {
 	}
 
 	private void init(Context context, AttributeSet attrs, int defStyleAttr) {
-		Configuration c = getResources().getConfiguration();
-		float scale = c.fontScale;
-		if (scale > 1) {
-			textViewGroup = LayoutInflater.from(context).inflate(R.layout.view_chained_edit_text_more_space, this, true);
-		} else {
-			textViewGroup = LayoutInflater.from(context).inflate(R.layout.view_chained_edit_text, this, true);
-		}
-		for (int i = 0; i < NUM_CHARACTERS; i++) {
-			textViews[i] = textViewGroup
-					.findViewById(getResources().getIdentifier(ID_TEXT_FIELD + (i + 1), "id", context.getPackageName()));
-		}
+		setFocusable(true);
+		setFocusableInTouchMode(true);
+		accessibilityManager = (AccessibilityManager) context.getSystemService(Context.ACCESSIBILITY_SERVICE);
+
+		cellBackground = ContextCompat.getDrawable(context, R.drawable.bg_chained_edit_text).mutate();
+		cellBackground.setState(STATE_DEFAULT);
+		selectedCellBackground = ContextCompat.getDrawable(context, R.drawable.bg_chained_edit_text).mutate();
+		selectedCellBackground.setState(STATE_SELECTED);
+
+		textPaint.setColor(ContextCompat.getColor(context, R.color.dark_main));
+		textPaint.setTextAlign(Paint.Align.CENTER);
+		textPaint.setTypeface(ResourcesCompat.getFont(context, R.font.inter_bold));
+
+		loadDimensions();
+
+		// the input method may commit any text, only digits up to the length of the code are accepted
+		editable.setFilters(new InputFilter[] {
+				DigitsKeyListener.getInstance(),
+				new InputFilter.LengthFilter(NUM_CHARACTERS) });
+		Selection.setSelection(editable, 0);
+		editable.setSpan(new TextWatcher() {
+			private String beforeText;
+			private int changeStart;
+			private int removedCount;
+			private int addedCount;
 
-		shadowEditText = new EditText(context);
-		shadowEditText.setHeight(1);
-		shadowEditText.setWidth(1);
-		shadowEditText.setBackgroundColor(Color.TRANSPARENT);
-		shadowEditText.setCursorVisible(false);
-		shadowEditText.setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS);
-		shadowEditText.setImeOptions(EditorInfo.IME_ACTION_SEND);
-		shadowEditText.addTextChangedListener(new TextWatcher() {
 			@Override
-			public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+			public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+				// the copy is only needed for the accessibility event, skip it while no service listens
+				beforeText = isAccessibilityEnabled() ? s.toString() : null;
+				changeStart = start;
+				removedCount = count;
+			}
 
 			@Override
-			public void onTextChanged(CharSequence s, int start, int before, int count) { }
+			public void onTextChanged(CharSequence s, int start, int before, int count) {
+				addedCount = count;
+			}
 
 			@Override
 			public void afterTextChanged(Editable s) {
-				if (s.length() > NUM_CHARACTERS) {
-					s.delete(NUM_CHARACTERS, s.length());
-				}
-				updateTextViews();
-				String input = s.toString();
-				for (ChainedEditTextListener listener : chainedEditTextListeners) {
-					listener.onTextChanged(input);
+				Selection.setSelection(s, s.length());
+				updateCells();
+				sendTextChangedAccessibilityEvent(beforeText, changeStart, removedCount, addedCount);
+				if (chainedEditTextListeners.size() > 0) {
+					String input = s.toString();
+					for (ChainedEditTextListener listener : chainedEditTextListeners) {
+						listener.onTextChanged(input);
+					}
 				}
 			}
-		});
-		shadowEditText.setOnFocusChangeListener((v, hasFocus) -> {
-			updateTextViews();
-			setKeyboardVisible(hasFocus);
-		});
-		shadowEditText.setOnEditorActionListener((v, actionId, event) -> {
-			if (actionId == EditorInfo.IME_ACTION_SEND && chainedEditTextListeners.size() > 0) {
-				for (ChainedEditTextListener listener : chainedEditTextListeners) {
-					listener.onEditorSendAction();
-				}
-				return true;
-			}
-			return false;
-		});
-		addView(shadowEditText);
+		}, 0, 0, Spanned.SPAN_INCLUSIVE_INCLUSIVE);
 
-		textViewGroup.setOnClickListener(v -> {
-			focusEditText();
+		setOnClickListener(v -> {
+			requestFocus();
 			setKeyboardVisible(true);
 		});
-		textViewGroup.setOnFocusChangeListener((v, hasFocus) -> {
-			if (hasFocus) {
-				focusEditText();
+	}
+
+	private void loadDimensions() {
+		Resources res = getResources();
+		fontScale = res.getConfiguration().fontScale;
+		cellWidth = res.getDimensionPixelSize(R.dimen.chained_edit_text_width);
+		cellHeight = res.getDimensionPixelSize(R.dimen.chained_edit_text_height);
+		cellSpacing = res.getDimensionPixelSize(R.dimen.padding_between_code);
+		groupSpacing = res.getDimensionPixelSize(R.dimen.spacing_medium);
+		contentPadding = res.getDimensionPixelSize(R.dimen.spacing_medium_large);
+		textPaint.setTextSize(res.getDimension(R.dimen.text_size_input));
+		Paint.FontMetrics fontMetrics = textPaint.getFontMetrics();
+		textBaselineOffset = (cellHeight - fontMetrics.ascent - fontMetrics.descent) / 2f;
+	}
+
+	@Override
+	protected void onConfigurationChanged(Configuration newConfig) {
+		super.onConfigurationChanged(newConfig);
+		if (newConfig.fontScale != fontScale) {
+			loadDimensions();
+			requestLayout();
+			invalidate();
+		}
+	}
+
+	private int getCellsWidth() {
+		int numGroupGaps = (NUM_CHARACTERS - 1) / GROUP_SIZE;
+		int numCellGaps = NUM_CHARACTERS - 1 - numGroupGaps;
+		return NUM_CHARACTERS * cellWidth + numCellGaps * cellSpacing + numGroupGaps * groupSpacing;
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		int desiredWidth = getCellsWidth() + 2 * contentPadding;
+		int desiredHeight = cellHeight + 2 * contentPadding;
+		setMeasuredDimension(resolveSize(desiredWidth, widthMeasureSpec), resolveSize(desiredHeight, heightMeasureSpec));
+	}
+
+	@Override
+	protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+		super.onLayout(changed, left, top, right, bottom);
+		float x = (getWidth() - getCellsWidth()) / 2f;
+		for (int i = 0; i < NUM_CHARACTERS; i++) {
+			cellLefts[i] = x;
+			x += cellWidth + ((i + 1) % GROUP_SIZE == 0 ? groupSpacing : cellSpacing);
+		}
+		cellsTop = (getHeight() - cellHeight) / 2f;
+	}
+
+	@Override
+	protected void onDraw(Canvas canvas) {
+		super.onDraw(canvas);
+		for (int i = 0; i < NUM_CHARACTERS; i++) {
+			getCellRect(i, cellRect);
+			Drawable background = i == selectedCell ? selectedCellBackground : cellBackground;
+			background.setBounds(cellRect);
+			background.draw(canvas);
+			if (code[i] != 0) {
+				canvas.drawText(code, i, 1, cellRect.exactCenterX(), cellsTop + textBaselineOffset, textPaint);
 			}
-		});
+		}
 	}
 
-	private void focusEditText() {
-		shadowEditText.requestFocus();
-		shadowEditText.setSelection(shadowEditText.getText().length());
+	private void getCellRect(int cell, Rect outRect) {
+		int left = Math.round(cellLefts[cell]);
+		int top = Math.round(cellsTop);
+		outRect.set(left, top, left + cellWidth, top + cellHeight);
 	}
 
-	private void updateTextViews() {
-		String input = shadowEditText.getText().toString();
-		boolean hasFocus = shadowEditText.hasFocus();
+	private void invalidateCell(int cell) {
+		getCellRect(cell, cellRect);
+		invalidate(cellRect);
+	}
+
+	private void updateCells() {
+		int length = editable.length();
 		for (int i = 0; i < NUM_CHARACTERS; i++) {
-			TextView textView = textViews[i];
-			if (i < input.length()) {
-				textView.setText(String.valueOf(input.charAt(i)));
-			} else {
-				textView.setText("");
+			char c = i < length ? editable.charAt(i) : 0;
+			if (code[i] != c) {
+				code[i] = c;
+				invalidateCell(i);
 			}
-			textView.setSelected(hasFocus && i == Math.min(input.length(), NUM_CHARACTERS - 1));
 		}
+		updateSelectedCell();
+	}
+
+	private void updateSelectedCell() {
+		int newSelectedCell = hasFocus() ? Math.min(editable.length(), NUM_CHARACTERS - 1) : -1;
+		if (newSelectedCell != selectedCell) {
+			if (selectedCell >= 0) invalidateCell(selectedCell);
+			if (newSelectedCell >= 0) invalidateCell(newSelectedCell);
+			selectedCell = newSelectedCell;
+		}
+	}
+
+	@Override
+	protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+		super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+		updateSelectedCell();
+		setKeyboardVisible(gainFocus);
+	}
+
+	@Override
+	public CharSequence getAccessibilityClassName() {
+		return EditText.class.getName();
+	}
+
+	@Override
+	public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+		super.onInitializeAccessibilityNodeInfo(info);
+		info.setEditable(true);
+		info.setText(editable.toString());
+		info.setTextSelection(editable.length(), editable.length());
+		info.setInputType(InputType.TYPE_CLASS_NUMBER);
+		info.setMaxTextLength(NUM_CHARACTERS);
+	}
+
+	@Override
+	public void onPopulateAccessibilityEvent(AccessibilityEvent event) {
+		super.onPopulateAccessibilityEvent(event);
+		event.getText().add(editable.toString());
+	}
+
+	private boolean isAccessibilityEnabled() {
+		return accessibilityManager != null && accessibilityManager.isEnabled();
+	}
+
+	private void sendTextChangedAccessibilityEvent(String beforeText, int fromIndex, int removedCount, int addedCount) {
+		if (!isAccessibilityEnabled() || beforeText == null) return;
+		AccessibilityEvent event = AccessibilityEvent.obtain(AccessibilityEvent.TYPE_VIEW_TEXT_CHANGED);
+		event.setBeforeText(beforeText);
+		event.setFromIndex(fromIndex);
+		event.setRemovedCount(removedCount);
+		event.setAddedCount(addedCount);
+		sendAccessibilityEventUnchecked(event);
+	}
+
+	@Override
+	public boolean onCheckIsTextEditor() {
+		return true;
+	}
+
+	@Override
+	public InputConnection onCreateInputConnection(EditorInfo outAttrs) {
+		outAttrs.inputType = InputType.TYPE_CLASS_NUMBER | InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS;
+		outAttrs.imeOptions = EditorInfo.IME_ACTION_SEND | EditorInfo.IME_FLAG_NO_EXTRACT_UI;
+		outAttrs.initialSelStart = editable.length();
+		outAttrs.initialSelEnd = editable.length();
+		return new BaseInputConnection(this, true) {
+			@Override
+			public Editable getEditable() {
+				return editable;
+			}
+
+			@Override
+			public boolean performEditorAction(int actionCode) {
+				return onEditorAction(actionCode);
+			}
+		};
+	}
+
+	private boolean onEditorAction(int actionCode) {
+		if (actionCode == EditorInfo.IME_ACTION_SEND && chainedEditTextListeners.size() > 0) {
+			for (ChainedEditTextListener listener : chainedEditTextListeners) {
+				listener.onEditorSendAction();
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean onKeyDown(int keyCode, KeyEvent event) {
+		if (keyCode == KeyEvent.KEYCODE_DEL) {
+			if (editable.length() > 0) {
+				editable.delete(editable.length() - 1, editable.length());
+			}
+			return true;
+		} else if (keyCode >= KeyEvent.KEYCODE_0 && keyCode <= KeyEvent.KEYCODE_9) {
+			editable.append((char) ('0' + keyCode - KeyEvent.KEYCODE_0));
+			return true;
+		} else if (keyCode == KeyEvent.KEYCODE_ENTER) {
+			return onEditorAction(EditorInfo.IME_ACTION_SEND);
+		}
+		return super.onKeyDown(keyCode, event);
 	}
 
 	private void setKeyboardVisible(boolean visible) {
 		InputMethodManager inputMethodManager = (InputMethodManager) getContext().getSystemService(Context.INPUT_METHOD_SERVICE);
 		if (visible) {
-			inputMethodManager.showSoftInput(shadowEditText, InputMethodManager.SHOW_IMPLICIT);
+			inputMethodManager.showSoftInput(this, InputMethodManager.SHOW_IMPLICIT);
 		} else {
-			inputMethodManager.hideSoftInputFromWindow(shadowEditText.getWindowToken(), 0);
+			inputMethodManager.hideSoftInputFromWindow(getWindowToken(), 0);
 		}
 	}
 
 	public String getText() {
-		return shadowEditText.getText().toString();
+		return editable.toString();
 	}
 
 	public void setText(String text) {
-		shadowEditText.setText(text);
+		editable.replace(0, editable.length(), text == null ? "" : text);
+		InputMethodManager inputMethodManager = (InputMethodManager) getContext().getSystemService(Context.INPUT_METHOD_SERVICE);
+		inputMethodManager.restartInput(this);
 	}
 
 	public void addTextChangedListener(ChainedEditTextListener chainedEditTextListener) {
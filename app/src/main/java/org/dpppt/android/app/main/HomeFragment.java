@@ -11,22 +11,18 @@ package org.dpppt.android.app.main;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
-import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.provider.Settings;
-import android.text.TextUtils;
 import android.util.TypedValue;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.ScrollView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.core.app.NotificationManagerCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
@@ -36,12 +32,16 @@ import org.dpppt.android.app.contacts.ContactsFragment;
 import org.dpppt.android.app.debug.DebugFragment;
 import org.dpppt.android.app.main.model.NotificationState;
 import org.dpppt.android.app.main.model.NotificationStateError;
+import org.dpppt.android.app.main.model.TracingStatusInterface;
 import org.dpppt.android.app.main.views.HeaderView;
 import org.dpppt.android.app.reports.ReportsFragment;
+import org.dpppt.android.app.reports.ReportsPagerViewPool;
 import org.dpppt.android.app.storage.SecureStorage;
+import org.dpppt.android.app.util.HeaderScrollEffect;
 import org.dpppt.android.app.util.NotificationStateHelper;
 import org.dpppt.android.app.util.NotificationUtil;
 import org.dpppt.android.app.util.NotificatonErrorStateHelper;
+import org.dpppt.android.app.util.PerformanceMetrics;
 import org.dpppt.android.app.util.TracingErrorStateHelper;
 import org.dpppt.android.app.viewmodel.TracingViewModel;
 import org.dpppt.android.app.whattodo.WtdPositiveTestFragment;
@@ -94,6 +94,7 @@ public class HomeFragment extends Fragment {
 
 	@Override
 	public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+		measureEntryUntilDrawn(view, PerformanceMetrics.startTimer());
 
 		infobox = view.findViewById(R.id.card_infobox);
 		tracingCard = view.findViewById(R.id.card_tracing);
@@ -114,6 +115,8 @@ public class HomeFragment extends Fragment {
 		setupWhatToDo();
 		setupDebugButton();
 		setupScrollBehavior();
+
+		ReportsPagerViewPool.getInstance(requireActivity()).scheduleWarmUp();
 	}
 
 	@Override
@@ -122,10 +125,52 @@ public class HomeFragment extends Fragment {
 		tracingViewModel.invalidateTracingStatus();
 	}
 
+	@Override
+	public void onHiddenChanged(boolean hidden) {
+		super.onHiddenChanged(hidden);
+		View view = getView();
+		if (view == null) return;
+		if (hidden) {
+			headerView.pauseAnimation();
+		} else {
+			measureEntryUntilDrawn(view, PerformanceMetrics.startTimer());
+			headerView.resumeAnimation();
+			// the child screens are added on top, so home does not pass through onStart when they are closed
+			tracingViewModel.invalidateTracingStatus();
+		}
+	}
+
+	private void measureEntryUntilDrawn(View view, long startTime) {
+		if (!PerformanceMetrics.ENABLED) return;
+		view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+			@Override
+			public boolean onPreDraw() {
+				view.getViewTreeObserver().removeOnPreDrawListener(this);
+				PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.HOME_ENTRY, startTime);
+				return true;
+			}
+		});
+	}
+
+	/**
+	 * Shows a screen on top of home. Home is only hidden, so its views, bindings and header stay alive and are shown again
+	 * without being rebuilt when the back stack is popped.
+	 */
+	private void showChildFragment(Fragment fragment) {
+		getParentFragmentManager().beginTransaction()
+				.setCustomAnimations(R.anim.slide_enter, R.anim.slide_exit, R.anim.slide_pop_enter, R.anim.slide_pop_exit)
+				.hide(this)
+				.add(R.id.main_fragment_container, fragment)
+				.addToBackStack(fragment.getClass().getCanonicalName())
+				.commit();
+	}
+
 	@Override
 	public void onDestroyView() {
 		super.onDestroyView();
 		headerView.stopAnimation();
+		// the animator belongs to the view and would keep the listener, and with it this fragment, after the animation
+		loadingView.animate().setListener(null).cancel();
 	}
 
 	private void setupHeader() {
@@ -201,21 +246,12 @@ public class HomeFragment extends Fragment {
 	}
 
 	private void showContactsFragment() {
-		getParentFragmentManager().beginTransaction()
-				.setCustomAnimations(R.anim.slide_enter, R.anim.slide_exit, R.anim.slide_pop_enter, R.anim.slide_pop_exit)
-				.replace(R.id.main_fragment_container, ContactsFragment.newInstance())
-				.addToBackStack(ContactsFragment.class.getCanonicalName())
-				.commit();
+		showChildFragment(ContactsFragment.newInstance());
 	}
 
 
 	private void setupNotification() {
-		cardNotifications.setOnClickListener(
-				v -> getParentFragmentManager().beginTransaction()
-						.setCustomAnimations(R.anim.slide_enter, R.anim.slide_exit, R.anim.slide_pop_enter, R.anim.slide_pop_exit)
-						.replace(R.id.main_fragment_container, ReportsFragment.newInstance())
-						.addToBackStack(ReportsFragment.class.getCanonicalName())
-						.commit());
+		cardNotifications.setOnClickListener(v -> showChildFragment(ReportsFragment.newInstance()));
 
 		tracingViewModel.getAppStatusLiveData().observe(getViewLifecycleOwner(), tracingStatusInterface -> {
 			//update status view
@@ -242,35 +278,47 @@ public class HomeFragment extends Fragment {
 				NotificationStateHelper.updateStatusView(reportStatusView, NotificationState.NO_REPORTS);
 			}
 
-			TracingStatus.ErrorState errorState = tracingStatusInterface.getReportErrorState();
-			if (errorState != null) {
-				TracingErrorStateHelper
-						.updateErrorView(reportErrorView, errorState);
-				reportErrorView.findViewById(R.id.error_status_button).setOnClickListener(v -> {
-					loadingView.animate()
-							.alpha(1f)
-							.setDuration(getResources().getInteger(android.R.integer.config_mediumAnimTime))
-							.setListener(new AnimatorListenerAdapter() {
-								@Override
-								public void onAnimationEnd(Animator animation) {
-									loadingView.setVisibility(VISIBLE);
-									tracingViewModel.sync();
-								}
-							});
-				});
-			} else if (!isNotificationChannelEnabled(getContext(), NotificationUtil.NOTIFICATION_CHANNEL_ID)) {
-				NotificatonErrorStateHelper
-						.updateNotificationErrorView(reportErrorView, NotificationStateError.NOTIFICATION_STATE_ERROR);
-				reportErrorView.findViewById(R.id.error_status_button).setOnClickListener(v -> {
-					openChannelSettings(NotificationUtil.NOTIFICATION_CHANNEL_ID);
-				});
-			} else {
-				//hide errorview
-				TracingErrorStateHelper.updateErrorView(reportErrorView, null);
+			updateReportErrorView(tracingStatusInterface);
+		});
+
+		tracingViewModel.getNotificationPermissionLiveData().observe(getViewLifecycleOwner(), notificationsEnabled -> {
+			TracingStatusInterface tracingStatusInterface = tracingViewModel.getAppStatusLiveData().getValue();
+			if (tracingStatusInterface != null) {
+				updateReportErrorView(tracingStatusInterface);
 			}
 		});
 	}
 
+	private void updateReportErrorView(TracingStatusInterface tracingStatusInterface) {
+		TracingStatus.ErrorState errorState = tracingStatusInterface.getReportErrorState();
+		Boolean notificationsEnabled = tracingViewModel.getNotificationPermissionLiveData().getValue();
+		if (errorState != null) {
+			TracingErrorStateHelper
+					.updateErrorView(reportErrorView, errorState);
+			reportErrorView.findViewById(R.id.error_status_button).setOnClickListener(v -> {
+				loadingView.animate()
+						.alpha(1f)
+						.setDuration(getResources().getInteger(android.R.integer.config_mediumAnimTime))
+						.setListener(new AnimatorListenerAdapter() {
+							@Override
+							public void onAnimationEnd(Animator animation) {
+								loadingView.setVisibility(VISIBLE);
+								tracingViewModel.sync();
+							}
+						});
+			});
+		} else if (notificationsEnabled != null && !notificationsEnabled) {
+			NotificatonErrorStateHelper
+					.updateNotificationErrorView(reportErrorView, NotificationStateError.NOTIFICATION_STATE_ERROR);
+			reportErrorView.findViewById(R.id.error_status_button).setOnClickListener(v -> {
+				openChannelSettings(NotificationUtil.NOTIFICATION_CHANNEL_ID);
+			});
+		} else {
+			//hide errorview
+			TracingErrorStateHelper.updateErrorView(reportErrorView, null);
+		}
+	}
+
 	private void openChannelSettings(String channelId) {
 
 		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
@@ -284,40 +332,17 @@ public class HomeFragment extends Fragment {
 		}
 	}
 
-	private boolean isNotificationChannelEnabled(Context context, @Nullable String channelId) {
-		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-			if (!TextUtils.isEmpty(channelId)) {
-				NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
-				NotificationChannel channel = manager.getNotificationChannel(channelId);
-				if (channel == null) {
-					return true;
-				}
-				return channel.getImportance() != NotificationManager.IMPORTANCE_NONE &&
-						!(!manager.areNotificationsEnabled() &&
-								channel.getImportance() == NotificationManager.IMPORTANCE_DEFAULT) &&
-						manager.areNotificationsEnabled();
-			}
-			return true;
-		} else {
-			return NotificationManagerCompat.from(context).areNotificationsEnabled();
-		}
-	}
-
 	private void setupWhatToDo() {
 
 		cardTest.setOnClickListener(
-				v -> getParentFragmentManager().beginTransaction()
-						.setCustomAnimations(R.anim.slide_enter, R.anim.slide_exit, R.anim.slide_pop_enter, R.anim.slide_pop_exit)
-						.replace(R.id.main_fragment_container, WtdPositiveTestFragment.newInstance())
-						.addToBackStack(WtdPositiveTestFragment.class.getCanonicalName())
-						.commit());
+				v -> showChildFragment(WtdPositiveTestFragment.newInstance()));
 	}
 
 	private void setupDebugButton() {
 		View debugButton = getView().findViewById(R.id.main_button_debug);
 		if (BuildConfig.IS_DEV) {
 			debugButton.setVisibility(VISIBLE);
-			debugButton.setOnClickListener(v -> DebugFragment.startDebugFragment(getParentFragmentManager()));
+			debugButton.setOnClickListener(v -> showChildFragment(DebugFragment.newInstance()));
 		} else {
 			debugButton.setVisibility(View.GONE);
 		}
@@ -327,20 +352,8 @@ public class HomeFragment extends Fragment {
 
 		int scrollRangePx = getResources().getDimensionPixelSize(R.dimen.top_item_padding);
 		int translationRangePx = -getResources().getDimensionPixelSize(R.dimen.spacing_huge);
-		scrollView.setOnScrollChangeListener((v, scrollX, scrollY, oldScrollX, oldScrollY) -> {
-			float progress = computeScrollAnimProgress(scrollY, scrollRangePx);
-			headerView.setAlpha(1 - progress);
-			headerView.setTranslationY(progress * translationRangePx);
-		});
-		scrollView.post(() -> {
-			float progress = computeScrollAnimProgress(scrollView.getScrollY(), scrollRangePx);
-			headerView.setAlpha(1 - progress);
-			headerView.setTranslationY(progress * translationRangePx);
-		});
-	}
-
-	private float computeScrollAnimProgress(int scrollY, int scrollRange) {
-		return Math.min(scrollY, scrollRange) / (float) scrollRange;
+		HeaderScrollEffect.attach(scrollView, headerView, scrollRangePx, translationRangePx,
+				headerView.getAnimationView());
 	}
 
 }
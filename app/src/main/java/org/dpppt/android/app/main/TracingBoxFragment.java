@@ -29,6 +29,7 @@ import androidx.lifecycle.ViewModelProvider;
 import org.dpppt.android.app.R;
 import org.dpppt.android.app.main.model.TracingState;
 import org.dpppt.android.app.onboarding.OnboardingLocationPermissionFragment;
+import org.dpppt.android.app.util.DeviceCapabilityMonitor;
 import org.dpppt.android.app.util.DeviceFeatureHelper;
 import org.dpppt.android.app.util.TracingErrorStateHelper;
 import org.dpppt.android.app.util.TracingStatusHelper;
@@ -129,8 +130,7 @@ public class TracingBoxFragment extends Fragment {
 					}
 					break;
 				case BLE_DISABLED:
-					BluetoothAdapter mBluetoothAdapter = BluetoothAdapter.getDefaultAdapter();
-					if (!mBluetoothAdapter.isEnabled()) {
+					if (!DeviceCapabilityMonitor.getInstance(requireContext()).getCapabilities().isBluetoothEnabled()) {
 						Intent bleIntent = new Intent(BluetoothAdapter.ACTION_REQUEST_ENABLE);
 						startActivityForResult(bleIntent, REQUEST_CODE_BLE_INTENT);
 					}
@@ -32,6 +32,11 @@ public interface TracingStatusInterface {
 
 	TracingStatus.ErrorState getReportErrorState();
 
+	/**
+	 * @return the time at which the error states may change without a new status, or {@link Long#MAX_VALUE}
+	 */
+	long getNextErrorStateUpdateTime();
+
 	long getDaysSinceExposure();
 
 }
@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.dpppt.android.app.R;
+import org.dpppt.android.app.util.PerformanceMetrics;
 
 public class CircleAnimationView extends View {
 
@@ -40,6 +41,8 @@ public class CircleAnimationView extends View {
 	private Handler circleHandler;
 	private CircleRunnable circleRunnable;
 	private ConcurrentLinkedQueue<CircleObject> circles = new ConcurrentLinkedQueue<>();
+	private boolean active = false;
+	private boolean paused = false;
 
 	private Paint paintCircle;
 	private int circleStrokeWidth;
@@ -93,17 +96,43 @@ public class CircleAnimationView extends View {
 
 	public void setState(boolean isActive, boolean initialUpdate) {
 		stopAnimation();
-		if (isActive) {
+		active = isActive;
+		if (isActive && !paused) {
 			circleRunnable = new CircleRunnable(3);
 			circleHandler.postDelayed(circleRunnable, initialUpdate ? INITIAL_DELAY_CIRCLE : 0);
 		}
 	}
 
+	/**
+	 * Stops spawning circles until {@link #resumeAnimation()}, state changes in between are applied on resume.
+	 */
+	public void pauseAnimation() {
+		paused = true;
+		stopAnimation();
+		circles.clear();
+	}
+
+	public void resumeAnimation() {
+		if (!paused) return;
+		paused = false;
+		if (active) {
+			circleRunnable = new CircleRunnable(3);
+			circleHandler.post(circleRunnable);
+		}
+	}
+
+	@Override
+	public boolean hasOverlappingRendering() {
+		// the circles barely overlap, so a fading header can apply its alpha per circle instead of in an offscreen buffer
+		return false;
+	}
+
 	@Override
 	protected void onDraw(Canvas canvas) {
 		super.onDraw(canvas);
 
 		if (circles.size() == 0) return;
+		PerformanceMetrics.count(PerformanceMetrics.Metric.HEADER_ANIMATION_FRAME);
 
 		long now = System.currentTimeMillis();
 		int halfW = Math.round(getWidth() * 0.5f);
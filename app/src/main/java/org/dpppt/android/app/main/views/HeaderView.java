@@ -69,6 +69,7 @@ public class HeaderView extends ConstraintLayout {
 	private TracingStatus.ErrorState currentErrorState;
 	private AnimatorSet iconAnimatorSet;
 	private ValueAnimator colorAnimator;
+	private boolean paused = false;
 
 	public HeaderView(Context context) {
 		super(context);
@@ -105,8 +106,35 @@ public class HeaderView extends ConstraintLayout {
 		circleView = headerContent.findViewById(R.id.main_header_anim_view);
 	}
 
+	/**
+	 * @return the child that redraws on every frame while the circles are animating
+	 */
+	public View getAnimationView() {
+		return circleView;
+	}
+
 	public void stopAnimation() {
 		circleView.stopAnimation();
+		if (iconAnimatorSet != null) iconAnimatorSet.cancel();
+		if (colorAnimator != null) colorAnimator.cancel();
+	}
+
+	/**
+	 * Pauses the running animations until {@link #resumeAnimation()}, state changes in between are applied without
+	 * animation.
+	 */
+	public void pauseAnimation() {
+		paused = true;
+		circleView.pauseAnimation();
+		if (iconAnimatorSet != null) iconAnimatorSet.pause();
+		if (colorAnimator != null) colorAnimator.pause();
+	}
+
+	public void resumeAnimation() {
+		paused = false;
+		circleView.resumeAnimation();
+		if (iconAnimatorSet != null) iconAnimatorSet.resume();
+		if (colorAnimator != null) colorAnimator.resume();
 	}
 
 	public void setState(TracingStatusInterface state) {
@@ -174,12 +202,16 @@ public class HeaderView extends ConstraintLayout {
 		ColorDrawable colorDrawable = (ColorDrawable) backgroundImage.getForeground();
 		int startColor = colorDrawable.getColor();
 		int endColor = backgroundColor;
-		colorAnimator = ValueAnimator.ofArgb(startColor, endColor);
-		colorAnimator.setDuration(COLOR_ANIM_DURATION);
-		colorAnimator.addUpdateListener(animation -> colorDrawable.setColor((int) animation.getAnimatedValue()));
-		colorAnimator.start();
+		if (paused) {
+			colorDrawable.setColor(endColor);
+		} else {
+			colorAnimator = ValueAnimator.ofArgb(startColor, endColor);
+			colorAnimator.setDuration(COLOR_ANIM_DURATION);
+			colorAnimator.addUpdateListener(animation -> colorDrawable.setColor((int) animation.getAnimatedValue()));
+			colorAnimator.start();
+		}
 
-		if (initialUpdate) {
+		if (initialUpdate && !paused) {
 			if (iconAnimatorSet != null && iconAnimatorSet.isRunning()) iconAnimatorSet.cancel();
 			Animator iconAnimator =
 					createSizeAnimation(icon, icon.getScaleX(), 1, ICON_ANIM_DURATION, ICON_ANIM_DELAY + INITIAL_DELAY);
@@ -196,6 +228,12 @@ public class HeaderView extends ConstraintLayout {
 			iconAnimatorSet.playTogether(iconAnimator, iconBgAnimator);
 			iconAnimatorSet.start();
 		} else {
+			if (initialUpdate) {
+				icon.setScaleX(1);
+				icon.setScaleY(1);
+				iconBackground.setScaleX(1);
+				iconBackground.setScaleY(1);
+			}
 			icon.setImageResource(iconRes);
 			if (iconTintColor != null) {
 				icon.setImageTintList(ContextCompat.getColorStateList(getContext(), iconTintColor));
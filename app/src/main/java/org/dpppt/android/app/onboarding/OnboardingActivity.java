@@ -12,17 +12,18 @@ package org.dpppt.android.app.onboarding;
 import android.os.Bundle;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.FragmentActivity;
-import androidx.viewpager2.adapter.FragmentStateAdapter;
 import androidx.viewpager2.widget.ViewPager2;
 
 import org.dpppt.android.app.R;
+import org.dpppt.android.app.util.DeviceCapabilityMonitor;
+import org.dpppt.android.app.util.IllustrationLoader;
 import org.dpppt.android.sdk.DP3T;
 
 
 public class OnboardingActivity extends FragmentActivity {
 
 	private ViewPager2 viewPager;
-	private FragmentStateAdapter pagerAdapter;
+	private OnboardingSlidePageAdapter pagerAdapter;
 
 	@Override
 	protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -33,6 +34,29 @@ public class OnboardingActivity extends FragmentActivity {
 		viewPager.setUserInputEnabled(false);
 		pagerAdapter = new OnboardingSlidePageAdapter(this);
 		viewPager.setAdapter(pagerAdapter);
+		viewPager.registerOnPageChangeCallback(new ViewPager2.OnPageChangeCallback() {
+			@Override
+			public void onPageSelected(int position) {
+				viewPager.post(() -> prefetchPage(position + 1));
+			}
+		});
+	}
+
+	/**
+	 * Rasterizes the illustration of the given page while the user is still reading the current one.
+	 */
+	private void prefetchPage(int position) {
+		if (position >= pagerAdapter.getItemCount() || viewPager.getWidth() == 0) return;
+		OnboardingPage page = pagerAdapter.getPage(position);
+		int width = viewPager.getWidth() - 2 * getResources().getDimensionPixelSize(page.getIllustrationInset());
+		int height = getResources().getDimensionPixelSize(R.dimen.illustration_height);
+		IllustrationLoader.getInstance(this).prefetch(this, page.getIllustration(), width, height);
+	}
+
+	@Override
+	protected void onResume() {
+		super.onResume();
+		DeviceCapabilityMonitor.getInstance(this).invalidatePermissionState();
 	}
 
 	public void continueToNextPage() {
@@ -17,13 +17,12 @@ import android.view.View;
 import android.widget.Button;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.fragment.app.Fragment;
 
 import org.dpppt.android.app.R;
 import org.dpppt.android.app.onboarding.util.PermissionButtonUtil;
-import org.dpppt.android.app.util.DeviceFeatureHelper;
+import org.dpppt.android.app.util.DeviceCapabilityMonitor;
 
-public class OnboardingBatteryPermissionFragment extends Fragment {
+public class OnboardingBatteryPermissionFragment extends OnboardingPageFragment {
 
 	private Button batteryButton;
 	private Button continueButton;
@@ -40,6 +39,7 @@ public class OnboardingBatteryPermissionFragment extends Fragment {
 
 	@Override
 	public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+		super.onViewCreated(view, savedInstanceState);
 		batteryButton = view.findViewById(R.id.onboarding_battery_permission_button);
 		batteryButton.setOnClickListener(v -> {
 			startActivity(new Intent(Settings.ACTION_REQUEST_IGNORE_BATTERY_OPTIMIZATIONS,
@@ -59,7 +59,9 @@ public class OnboardingBatteryPermissionFragment extends Fragment {
 	}
 
 	private void updateFragmentState() {
-		boolean batteryOptDeactivated = DeviceFeatureHelper.isBatteryOptimizationDeactivated(requireContext());
+		boolean batteryOptDeactivated = DeviceCapabilityMonitor.getInstance(requireContext())
+				.getCapabilities()
+				.isBatteryOptimizationDeactivated();
 		if (batteryOptDeactivated) {
 			PermissionButtonUtil.setButtonOk(batteryButton, R.string.android_onboarding_battery_permission_button_deactivated);
 		} else {
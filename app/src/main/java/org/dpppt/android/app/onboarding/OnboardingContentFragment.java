@@ -19,11 +19,10 @@ import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
-import androidx.fragment.app.Fragment;
 
 import org.dpppt.android.app.R;
 
-public class OnboardingContentFragment extends Fragment {
+public class OnboardingContentFragment extends OnboardingPageFragment {
 
 	private static final String ARG_RES_TITLE = "RES_TITLE";
 	private static final String ARG_RES_SUBTITLE = "RES_SUBTITLE";
@@ -31,16 +30,14 @@ public class OnboardingContentFragment extends Fragment {
 	private static final String ARG_RES_DESCRIPTION_2 = "RES_DESCRIPTION_2";
 	private static final String ARG_RES_DESCR_ICON_1 = "ARG_RES_DESCR_ICON_1";
 	private static final String ARG_RES_DESCR_ICON_2 = "ARG_RES_DESCR_ICON_2";
-	private static final String ARG_RES_ILLUSTRATION = "RES_ILLUSTRATION";
 	private static final String ARG_STYLE_GREEN = "ARG_STYLE_GREEN";
 
 	public static OnboardingContentFragment newInstance(@StringRes int title, @StringRes int subtitle,
-			@DrawableRes int illustration, @StringRes int description1, @DrawableRes int iconDescription1,
+			@StringRes int description1, @DrawableRes int iconDescription1,
 			@StringRes int description2, @DrawableRes int iconDescription2, boolean greenStyle) {
 		Bundle args = new Bundle();
 		args.putInt(ARG_RES_TITLE, title);
 		args.putInt(ARG_RES_SUBTITLE, subtitle);
-		args.putInt(ARG_RES_ILLUSTRATION, illustration);
 		args.putInt(ARG_RES_DESCR_ICON_1, iconDescription1);
 		args.putInt(ARG_RES_DESCRIPTION_1, description1);
 		args.putInt(ARG_RES_DESCR_ICON_2, iconDescription2);
@@ -68,8 +65,6 @@ public class OnboardingContentFragment extends Fragment {
 		if (args.getBoolean(ARG_STYLE_GREEN))
 			subtitle.setTextColor(getResources().getColor(R.color.green_main, null));
 
-		((ImageView) view.findViewById(R.id.onboarding_illustration)).setImageResource(args.getInt(ARG_RES_ILLUSTRATION));
-
 		ImageView icon1 = view.findViewById(R.id.onboarding_description_1_icon);
 		icon1.setImageResource(args.getInt(ARG_RES_DESCR_ICON_1));
 		if (args.getBoolean(ARG_STYLE_GREEN))
@@ -13,11 +13,10 @@ import android.os.Bundle;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.fragment.app.Fragment;
 
 import org.dpppt.android.app.R;
 
-public class OnboardingFinishedFragment extends Fragment {
+public class OnboardingFinishedFragment extends OnboardingPageFragment {
 
 	public static OnboardingFinishedFragment newInstance() {
 		return new OnboardingFinishedFragment();
@@ -29,6 +28,7 @@ public class OnboardingFinishedFragment extends Fragment {
 
 	@Override
 	public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+		super.onViewCreated(view, savedInstanceState);
 		view.findViewById(R.id.onboarding_continue_button)
 				.setOnClickListener(v -> {
 					((OnboardingActivity) getActivity()).continueToNextPage();
@@ -18,13 +18,13 @@ import android.widget.Button;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.app.ActivityCompat;
-import androidx.fragment.app.Fragment;
 
 import org.dpppt.android.app.R;
 import org.dpppt.android.app.onboarding.util.PermissionButtonUtil;
+import org.dpppt.android.app.util.DeviceCapabilityMonitor;
 import org.dpppt.android.app.util.DeviceFeatureHelper;
 
-public class OnboardingLocationPermissionFragment extends Fragment {
+public class OnboardingLocationPermissionFragment extends OnboardingPageFragment {
 
 	public static final int REQUEST_CODE_ASK_PERMISSION_FINE_LOCATION = 123;
 
@@ -41,6 +41,7 @@ public class OnboardingLocationPermissionFragment extends Fragment {
 
 	@Override
 	public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+		super.onViewCreated(view, savedInstanceState);
 		locationButton = view.findViewById(R.id.onboarding_location_permission_button);
 		locationButton.setOnClickListener(v -> {
 			String[] permissions = new String[] { Manifest.permission.ACCESS_FINE_LOCATION };
@@ -59,7 +60,9 @@ public class OnboardingLocationPermissionFragment extends Fragment {
 	}
 
 	private void updateFragmentState() {
-		boolean locationPermissionGranted = DeviceFeatureHelper.isLocationPermissionGranted(requireContext());
+		boolean locationPermissionGranted = DeviceCapabilityMonitor.getInstance(requireContext())
+				.getCapabilities()
+				.isLocationPermissionGranted();
 		if (locationPermissionGranted) {
 			PermissionButtonUtil.setButtonOk(locationButton, R.string.android_onboarding_bt_permission_button_allowed);
 		} else {
@@ -71,6 +74,7 @@ public class OnboardingLocationPermissionFragment extends Fragment {
 	@Override
 	public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
 		if (requestCode == REQUEST_CODE_ASK_PERMISSION_FINE_LOCATION) {
+			DeviceCapabilityMonitor.getInstance(requireContext()).invalidatePermissionState();
 			if (grantResults.length <= 0 || grantResults[0] != PackageManager.PERMISSION_GRANTED) {
 				if (!ActivityCompat
 						.shouldShowRequestPermissionRationale(requireActivity(), Manifest.permission.ACCESS_FINE_LOCATION)) {
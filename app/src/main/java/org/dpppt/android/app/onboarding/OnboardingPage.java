@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.onboarding;
+
+import androidx.annotation.DimenRes;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.StringRes;
+
+import org.dpppt.android.app.R;
+
+/**
+ * Describes one page of the onboarding. The fragment of a page is only created when the pager needs it, the descriptor
+ * itself is enough to prefetch the page's illustration.
+ */
+public class OnboardingPage {
+
+	enum Type {
+		CONTENT,
+		LOCATION_PERMISSION,
+		BATTERY_PERMISSION,
+		FINISHED
+	}
+
+	private final Type type;
+	@DrawableRes private final int illustration;
+	@DimenRes private final int illustrationInset;
+
+	@StringRes private int title;
+	@StringRes private int subtitle;
+	@StringRes private int description1;
+	@DrawableRes private int iconDescription1;
+	@StringRes private int description2;
+	@DrawableRes private int iconDescription2;
+	private boolean greenStyle;
+
+	static OnboardingPage content(@StringRes int title, @StringRes int subtitle, @DrawableRes int illustration,
+			@StringRes int description1, @DrawableRes int iconDescription1, @StringRes int description2,
+			@DrawableRes int iconDescription2, boolean greenStyle) {
+		OnboardingPage page = new OnboardingPage(Type.CONTENT, illustration, R.dimen.spacing_large);
+		page.title = title;
+		page.subtitle = subtitle;
+		page.description1 = description1;
+		page.iconDescription1 = iconDescription1;
+		page.description2 = description2;
+		page.iconDescription2 = iconDescription2;
+		page.greenStyle = greenStyle;
+		return page;
+	}
+
+	static OnboardingPage of(Type type, @DrawableRes int illustration) {
+		return new OnboardingPage(type, illustration, R.dimen.spacing_huge);
+	}
+
+	private OnboardingPage(Type type, @DrawableRes int illustration, @DimenRes int illustrationInset) {
+		this.type = type;
+		this.illustration = illustration;
+		this.illustrationInset = illustrationInset;
+	}
+
+	OnboardingPageFragment createFragment() {
+		OnboardingPageFragment fragment;
+		switch (type) {
+			case CONTENT:
+				fragment = OnboardingContentFragment.newInstance(title, subtitle, description1, iconDescription1, description2,
+						iconDescription2, greenStyle);
+				break;
+			case LOCATION_PERMISSION:
+				fragment = OnboardingLocationPermissionFragment.newInstance();
+				break;
+			case BATTERY_PERMISSION:
+				fragment = OnboardingBatteryPermissionFragment.newInstance();
+				break;
+			case FINISHED:
+				fragment = OnboardingFinishedFragment.newInstance();
+				break;
+			default:
+				throw new IllegalArgumentException("There is no fragment for page type " + type);
+		}
+		return fragment.withIllustration(illustration);
+	}
+
+	@DrawableRes
+	int getIllustration() {
+		return illustration;
+	}
+
+	/**
+	 * @return the horizontal inset of the illustration's content area on either side of the page
+	 */
+	@DimenRes
+	int getIllustrationInset() {
+		return illustrationInset;
+	}
+
+}
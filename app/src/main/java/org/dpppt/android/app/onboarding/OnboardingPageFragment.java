@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.onboarding;
+
+import android.os.Bundle;
+import android.view.View;
+import android.widget.ImageView;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+import org.dpppt.android.app.R;
+import org.dpppt.android.app.util.IllustrationLoader;
+
+/**
+ * Base class of the onboarding pages. The page's illustration is attached while the page is started, so the pages the
+ * pager keeps next to the current one already show it while they slide in. Pages beyond that are stopped and destroyed
+ * by the pager, which releases their bitmaps.
+ */
+public abstract class OnboardingPageFragment extends Fragment {
+
+	private static final String ARG_RES_ILLUSTRATION = "RES_ILLUSTRATION";
+
+	private ImageView illustrationView;
+
+	protected OnboardingPageFragment(@LayoutRes int contentLayoutId) {
+		super(contentLayoutId);
+	}
+
+	OnboardingPageFragment withIllustration(@DrawableRes int illustration) {
+		Bundle args = getArguments() != null ? getArguments() : new Bundle();
+		args.putInt(ARG_RES_ILLUSTRATION, illustration);
+		setArguments(args);
+		return this;
+	}
+
+	@Override
+	public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+		super.onViewCreated(view, savedInstanceState);
+		illustrationView = view.findViewById(R.id.onboarding_illustration);
+	}
+
+	@Override
+	public void onStart() {
+		super.onStart();
+		int illustration = requireArguments().getInt(ARG_RES_ILLUSTRATION);
+		if (illustrationView != null && illustration != 0) {
+			IllustrationLoader.getInstance(requireContext()).load(illustrationView, illustration);
+		}
+	}
+
+	@Override
+	public void onStop() {
+		super.onStop();
+		if (illustrationView != null) {
+			IllustrationLoader.getInstance(requireContext()).release(illustrationView);
+		}
+	}
+
+	@Override
+	public void onDestroyView() {
+		super.onDestroyView();
+		illustrationView = null;
+	}
+
+}
@@ -14,10 +14,55 @@ import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
 import androidx.viewpager2.adapter.FragmentStateAdapter;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.dpppt.android.app.R;
 
 public class OnboardingSlidePageAdapter extends FragmentStateAdapter {
 
+	private static final List<OnboardingPage> PAGES = Collections.unmodifiableList(Arrays.asList(
+			OnboardingPage.content(
+					R.string.onboarding_prinzip_title,
+					R.string.onboarding_prinzip_heading,
+					R.drawable.ill_prinzip,
+					R.string.onboarding_prinzip_text1,
+					R.drawable.ic_begegnungen,
+					R.string.onboarding_prinzip_text2,
+					R.drawable.ic_message_alert,
+					false),
+			OnboardingPage.content(
+					R.string.onboarding_privacy_title,
+					R.string.onboarding_privacy_heading,
+					R.drawable.ill_privacy,
+					R.string.onboarding_privacy_text1,
+					R.drawable.ic_key,
+					R.string.onboarding_privacy_text2,
+					R.drawable.ic_lock,
+					true),
+			OnboardingPage.content(
+					R.string.onboarding_begegnungen_title,
+					R.string.onboarding_begegnungen_heading,
+					R.drawable.ill_bluetooth,
+					R.string.onboarding_begegnungen_text1,
+					R.drawable.ic_begegnungen,
+					R.string.onboarding_begegnungen_text2,
+					R.drawable.ic_bluetooth,
+					false),
+			OnboardingPage.of(OnboardingPage.Type.LOCATION_PERMISSION, R.drawable.ill_bt_permission),
+			OnboardingPage.of(OnboardingPage.Type.BATTERY_PERMISSION, R.drawable.ill_battery_permission),
+			OnboardingPage.content(
+					R.string.onboarding_meldung_title,
+					R.string.onboarding_meldung_heading,
+					R.drawable.ill_meldung,
+					R.string.onboarding_meldung_text1,
+					R.drawable.ic_message_alert,
+					R.string.onboarding_meldung_text2,
+					R.drawable.ic_home,
+					false),
+			OnboardingPage.of(OnboardingPage.Type.FINISHED, R.drawable.ill_outro)));
+
 	public OnboardingSlidePageAdapter(FragmentActivity fragmentActivity) {
 		super(fragmentActivity);
 	}
@@ -25,60 +70,16 @@ public class OnboardingSlidePageAdapter extends FragmentStateAdapter {
 	@NonNull
 	@Override
 	public Fragment createFragment(int position) {
-		switch (position) {
-			case 0:
-				return OnboardingContentFragment.newInstance(
-						R.string.onboarding_prinzip_title,
-						R.string.onboarding_prinzip_heading,
-						R.drawable.ill_prinzip,
-						R.string.onboarding_prinzip_text1,
-						R.drawable.ic_begegnungen,
-						R.string.onboarding_prinzip_text2,
-						R.drawable.ic_message_alert,
-						false);
-			case 1:
-				return OnboardingContentFragment.newInstance(
-						R.string.onboarding_privacy_title,
-						R.string.onboarding_privacy_heading,
-						R.drawable.ill_privacy,
-						R.string.onboarding_privacy_text1,
-						R.drawable.ic_key,
-						R.string.onboarding_privacy_text2,
-						R.drawable.ic_lock,
-						true);
-			case 2:
-				return OnboardingContentFragment.newInstance(
-						R.string.onboarding_begegnungen_title,
-						R.string.onboarding_begegnungen_heading,
-						R.drawable.ill_bluetooth,
-						R.string.onboarding_begegnungen_text1,
-						R.drawable.ic_begegnungen,
-						R.string.onboarding_begegnungen_text2,
-						R.drawable.ic_bluetooth,
-						false);
-			case 3:
-				return OnboardingLocationPermissionFragment.newInstance();
-			case 4:
-				return OnboardingBatteryPermissionFragment.newInstance();
-			case 5:
-				return OnboardingContentFragment.newInstance(
-						R.string.onboarding_meldung_title,
-						R.string.onboarding_meldung_heading,
-						R.drawable.ill_meldung,
-						R.string.onboarding_meldung_text1,
-						R.drawable.ic_message_alert,
-						R.string.onboarding_meldung_text2,
-						R.drawable.ic_home,
-						false);
-			case 6:
-				return OnboardingFinishedFragment.newInstance();
-		}
-		throw new IllegalArgumentException("There is no fragment for view pager position " + position);
+		return PAGES.get(position).createFragment();
 	}
 
 	@Override
 	public int getItemCount() {
-		return 7;
+		return PAGES.size();
+	}
+
+	public OnboardingPage getPage(int position) {
+		return PAGES.get(position);
 	}
 
 }
@@ -14,7 +14,8 @@ import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.PointF;
+import android.graphics.Picture;
+import android.graphics.Rect;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.AttributeSet;
@@ -22,6 +23,7 @@ import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager.widget.ViewPager;
 import androidx.viewpager2.widget.ViewPager2;
 
@@ -37,6 +39,10 @@ import static android.widget.LinearLayout.VERTICAL;
  *
  * Draws circles (one for each view). The current view position is filled and
  * others are only stroked.
+ *
+ * The dot centers are computed when the size or the item count changes and the
+ * static dots are recorded into a {@link Picture}, so a scroll frame only moves
+ * the filled dot and invalidates its old and new bounds.
  */
 public class CirclePageIndicator extends View {
 	private static final int INVALID_POINTER = -1;
@@ -60,6 +66,34 @@ public class CirclePageIndicator extends View {
 	private int mActivePointerId = INVALID_POINTER;
 	private boolean mIsDragging;
 
+	private final Picture mStaticDots = new Picture();
+	private final Rect mDirtyBounds = new Rect();
+	private final Rect mDotBounds = new Rect();
+	private float[] mDotCenters = new float[0];
+	private int mDotCount;
+	private boolean mGeometryValid;
+	private float mShortOffset;
+	private float mInitialLongOffset;
+	private float mSpreadDistance;
+	private float mNeededLength;
+	private float mMissingLength;
+
+	private final RecyclerView.AdapterDataObserver mAdapterObserver = new RecyclerView.AdapterDataObserver() {
+		@Override
+		public void onChanged() {
+			invalidateGeometry();
+		}
+
+		@Override
+		public void onItemRangeInserted(int positionStart, int itemCount) {
+			invalidateGeometry();
+		}
+
+		@Override
+		public void onItemRangeRemoved(int positionStart, int itemCount) {
+			invalidateGeometry();
+		}
+	};
 
 	public CirclePageIndicator(Context context) {
 		this(context, null);
@@ -87,7 +121,7 @@ public class CirclePageIndicator extends View {
 
 	public void setCentered(boolean centered) {
 		mCentered = centered;
-		invalidate();
+		invalidateGeometry();
 	}
 
 	public boolean isCentered() {
@@ -96,7 +130,7 @@ public class CirclePageIndicator extends View {
 
 	public void setPageColor(int pageColor) {
 		mPaintPageFill.setColor(pageColor);
-		invalidate();
+		invalidateGeometry();
 	}
 
 	public int getPageColor() {
@@ -117,6 +151,7 @@ public class CirclePageIndicator extends View {
 			case HORIZONTAL:
 			case VERTICAL:
 				mOrientation = orientation;
+				mGeometryValid = false;
 				requestLayout();
 				break;
 
@@ -131,7 +166,7 @@ public class CirclePageIndicator extends View {
 
 	public void setStrokeColor(int strokeColor) {
 		mPaintStroke.setColor(strokeColor);
-		invalidate();
+		invalidateGeometry();
 	}
 
 	public int getStrokeColor() {
@@ -140,7 +175,7 @@ public class CirclePageIndicator extends View {
 
 	public void setStrokeWidth(float strokeWidth) {
 		mPaintStroke.setStrokeWidth(strokeWidth);
-		invalidate();
+		invalidateGeometry();
 	}
 
 	public float getStrokeWidth() {
@@ -149,7 +184,7 @@ public class CirclePageIndicator extends View {
 
 	public void setRadius(float radius) {
 		mRadius = radius;
-		invalidate();
+		invalidateGeometry();
 	}
 
 	public float getRadius() {
@@ -166,22 +201,17 @@ public class CirclePageIndicator extends View {
 	}
 
 	@Override
-	protected void onDraw(Canvas canvas) {
-		super.onDraw(canvas);
-
-		if (mViewPager == null) {
-			return;
-		}
-		final int count = mViewPager.getAdapter().getItemCount();
-		if (count == 0) {
-			return;
-		}
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+		mGeometryValid = false;
+	}
 
-		if (mCurrentPage >= count) {
-			setCurrentItem(count - 1);
-			return;
-		}
+	private void invalidateGeometry() {
+		mGeometryValid = false;
+		invalidate();
+	}
 
+	private void updateGeometry(int count) {
 		int longSize;
 		int longPaddingBefore;
 		int longPaddingAfter;
@@ -198,64 +228,156 @@ public class CirclePageIndicator extends View {
 			shortPaddingBefore = getPaddingLeft();
 		}
 
-		final float spreadDistance = mRadius * 4.5f;
-		final float shortOffset = shortPaddingBefore + mRadius;
-		float longOffset = longPaddingBefore + mRadius;
+		mSpreadDistance = mRadius * 4.5f;
+		mShortOffset = shortPaddingBefore + mRadius;
+		mInitialLongOffset = longPaddingBefore + mRadius;
+		float longOffset = mInitialLongOffset;
 		if (mCentered) {
-			longOffset += ((longSize - longPaddingBefore - longPaddingAfter) / 2.0f) - (((count-1) * spreadDistance) / 2.0f + mRadius);
+			longOffset += ((longSize - longPaddingBefore - longPaddingAfter) / 2.0f) - (((count-1) * mSpreadDistance) / 2.0f + mRadius);
 		}
 
-		// case: indicators need more space than available
-		final float neededWidth = longPaddingBefore + mRadius + (count - 1) * spreadDistance + mRadius + longPaddingAfter;
-		boolean indicatorsExceedAvailableSpace = neededWidth > longSize;
-		if (indicatorsExceedAvailableSpace) {
-			longOffset = calculateShiftingOffset(neededWidth, longSize, longPaddingBefore + mRadius, spreadDistance);
+		// case: indicators need more space than available, the dots are shifted along with the filled circle
+		mNeededLength = longPaddingBefore + mRadius + (count - 1) * mSpreadDistance + mRadius + longPaddingAfter;
+		mMissingLength = Math.max(0, mNeededLength - longSize);
+		if (mMissingLength > 0) {
+			longOffset = mInitialLongOffset;
 		}
 
+		if (mDotCenters.length < count) {
+			mDotCenters = new float[count];
+		}
+		for (int iLoop = 0; iLoop < count; iLoop++) {
+			mDotCenters[iLoop] = longOffset + (iLoop * mSpreadDistance);
+		}
+		mDotCount = count;
+
 		float pageFillRadius = mRadius;
 		if (mPaintStroke.getStrokeWidth() > 0) {
 			pageFillRadius -= mPaintStroke.getStrokeWidth() / 2.0f;
 		}
 
-		//Draw stroked circles
+		//Record stroked circles
+		Canvas canvas = mStaticDots.beginRecording(Math.max(1, getWidth()), Math.max(1, getHeight()));
 		for (int iLoop = 0; iLoop < count; iLoop++) {
-			float drawLong = longOffset + (iLoop * spreadDistance);
-			PointF center = getPointXySwappedIfVerticalOrientation(drawLong, shortOffset, mOrientation);
+			float x = mOrientation == HORIZONTAL ? mDotCenters[iLoop] : mShortOffset;
+			float y = mOrientation == HORIZONTAL ? mShortOffset : mDotCenters[iLoop];
 			// Only paint fill if not completely transparent
 			if (mPaintPageFill.getAlpha() > 0) {
-				canvas.drawCircle(center.x, center.y, pageFillRadius, mPaintPageFill);
+				canvas.drawCircle(x, y, pageFillRadius, mPaintPageFill);
 			}
 
 			// Only paint stroke if a stroke width was non-zero
 			if (pageFillRadius != mRadius) {
-				canvas.drawCircle(center.x, center.y, mRadius, mPaintStroke);
+				canvas.drawCircle(x, y, mRadius, mPaintStroke);
+			}
+		}
+		mStaticDots.endRecording();
+		mGeometryValid = true;
+	}
+
+	@Override
+	protected void onDraw(Canvas canvas) {
+		super.onDraw(canvas);
+
+		if (mViewPager == null) {
+			return;
+		}
+		final int count = mViewPager.getAdapter().getItemCount();
+		if (count == 0) {
+			return;
+		}
+
+		if (mCurrentPage >= count) {
+			setCurrentItem(count - 1);
+			return;
+		}
+
+		if (!mGeometryValid || mDotCount != count) {
+			updateGeometry(count);
+		}
+
+		float fillCenter = getFilledCircleCenter();
+		float shift = getShiftingOffset(fillCenter);
+
+		//Draw stroked circles
+		if (shift != 0) {
+			canvas.save();
+			if (mOrientation == HORIZONTAL) {
+				canvas.translate(shift, 0);
+			} else {
+				canvas.translate(0, shift);
 			}
+			canvas.drawPicture(mStaticDots);
+			canvas.restore();
+		} else {
+			canvas.drawPicture(mStaticDots);
 		}
 
 		//Draw the filled circle according to the current scroll
-		float cx = getXCoordinateOfFilledCircleCenter(longOffset, spreadDistance);
-		PointF center = getPointXySwappedIfVerticalOrientation(cx, shortOffset, mOrientation);
-		canvas.drawCircle(center.x, center.y, mRadius, mPaintFill);
+		fillCenter += shift;
+		if (mOrientation == HORIZONTAL) {
+			canvas.drawCircle(fillCenter, mShortOffset, mRadius, mPaintFill);
+		} else {
+			canvas.drawCircle(mShortOffset, fillCenter, mRadius, mPaintFill);
+		}
 	}
 
-	private float calculateShiftingOffset(float neededWidth, float actualWidth, float initialOffset, float distanceBetweenTwoCircleCenterX) {
-		float missingWidth = neededWidth - actualWidth;
-		float currentX = getXCoordinateOfFilledCircleCenter(initialOffset, distanceBetweenTwoCircleCenterX);
-		float progress = currentX / neededWidth;
-		float relativeMissingWidth = missingWidth * progress;
-		return initialOffset - relativeMissingWidth;
+	private float getShiftingOffset(float filledCircleCenter) {
+		if (mMissingLength == 0) {
+			return 0;
+		}
+		float progress = filledCircleCenter / mNeededLength;
+		return -mMissingLength * progress;
 	}
 
-	private PointF getPointXySwappedIfVerticalOrientation(float x, float y, int orientation) {
-		return (orientation == HORIZONTAL) ? new PointF(x, y) : new PointF(y, x);
+	/**
+	 * @return the center of the filled circle on the long axis, before shifting
+	 */
+	private float getFilledCircleCenter() {
+		float currentX = (mSnap ? mSnapPage : mCurrentPage) * mSpreadDistance;
+		if (!mSnap) {
+			currentX += mPageOffset * mSpreadDistance;
+		}
+		return (mMissingLength > 0 ? mInitialLongOffset : mDotCenters[0]) + currentX;
 	}
 
-	private float getXCoordinateOfFilledCircleCenter(float initialOffset, float distanceBetweenTwoCircleCenterX) {
-		float currentX = (mSnap ? mSnapPage : mCurrentPage) * distanceBetweenTwoCircleCenterX;
-		if (!mSnap) {
-			currentX += mPageOffset * distanceBetweenTwoCircleCenterX;
+	private void getFilledCircleBounds(Rect outBounds) {
+		float center = getFilledCircleCenter();
+		int extent = (int) Math.ceil(mRadius + mPaintStroke.getStrokeWidth()) + 1;
+		int longCenter = Math.round(center);
+		int shortCenter = Math.round(mShortOffset);
+		if (mOrientation == HORIZONTAL) {
+			outBounds.set(longCenter - extent, shortCenter - extent, longCenter + extent, shortCenter + extent);
+		} else {
+			outBounds.set(shortCenter - extent, longCenter - extent, shortCenter + extent, longCenter + extent);
+		}
+	}
+
+	/**
+	 * Applies a change of the pager position. As long as the dots are not shifted only the area covered by the old and the
+	 * new filled circle is invalidated.
+	 */
+	private void updatePosition(int currentPage, int snapPage, float pageOffset) {
+		if (currentPage == mCurrentPage && snapPage == mSnapPage && pageOffset == mPageOffset) {
+			return;
+		}
+		boolean partialInvalidate = mGeometryValid && mMissingLength == 0 && mDotCount > 0;
+		if (partialInvalidate) {
+			getFilledCircleBounds(mDirtyBounds);
+		}
+		mCurrentPage = currentPage;
+		mSnapPage = snapPage;
+		mPageOffset = pageOffset;
+		if (partialInvalidate) {
+			getFilledCircleBounds(mDotBounds);
+			if (mDotBounds.equals(mDirtyBounds)) {
+				return;
+			}
+			mDirtyBounds.union(mDotBounds);
+			invalidate(mDirtyBounds);
+		} else {
+			invalidate();
 		}
-		return initialOffset + currentX;
 	}
 
 	public boolean onTouchEvent(MotionEvent ev) {
@@ -347,13 +469,15 @@ public class CirclePageIndicator extends View {
 		}
 		if (mViewPager != null) {
 			mViewPager.unregisterOnPageChangeCallback(mCallback);
+			mViewPager.getAdapter().unregisterAdapterDataObserver(mAdapterObserver);
 		}
 		if (view.getAdapter() == null) {
 			throw new IllegalStateException("ViewPager does not have adapter instance.");
 		}
 		mViewPager = view;
 		mViewPager.registerOnPageChangeCallback(mCallback);
-		invalidate();
+		mViewPager.getAdapter().registerAdapterDataObserver(mAdapterObserver);
+		invalidateGeometry();
 	}
 
 	public void setViewPager(ViewPager2 view, int initialPosition) {
@@ -442,17 +566,13 @@ public class CirclePageIndicator extends View {
 
 		@Override
 		public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
-			mCurrentPage = position;
-			mPageOffset = positionOffset;
-			invalidate();
+			updatePosition(position, mSnapPage, positionOffset);
 		}
 
 		@Override
 		public void onPageSelected(int position) {
 			if (mSnap || mScrollState == ViewPager.SCROLL_STATE_IDLE) {
-				mCurrentPage = position;
-				mSnapPage = position;
-				invalidate();
+				updatePosition(position, position, mPageOffset);
 			}
 		}
 
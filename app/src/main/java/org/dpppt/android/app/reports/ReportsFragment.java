@@ -15,9 +15,11 @@ import android.content.Intent;
 import android.graphics.Rect;
 import android.net.Uri;
 import android.os.Bundle;
+import android.text.SpannableStringBuilder;
 import android.util.Pair;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 import android.widget.Button;
 import android.widget.FrameLayout;
 import android.widget.TextView;
@@ -27,6 +29,7 @@ import androidx.annotation.StringRes;
 import androidx.appcompat.widget.Toolbar;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.transition.AutoTransition;
 import androidx.transition.Transition;
 import androidx.transition.TransitionManager;
@@ -40,13 +43,17 @@ import java.util.TimeZone;
 import org.dpppt.android.app.R;
 import org.dpppt.android.app.storage.SecureStorage;
 import org.dpppt.android.app.util.DateUtils;
+import org.dpppt.android.app.util.HeaderScrollEffect;
 import org.dpppt.android.app.util.NotificationUtil;
 import org.dpppt.android.app.util.PhoneUtil;
+import org.dpppt.android.app.util.StringTemplate;
 import org.dpppt.android.app.viewmodel.TracingViewModel;
 import org.dpppt.android.sdk.internal.database.models.ExposureDay;
 
 public class ReportsFragment extends Fragment {
 
+	private static final int NUM_PAGER_TYPES = ReportsPagerFragment.Type.values().length;
+
 	public static ReportsFragment newInstance() {
 		return new ReportsFragment();
 	}
@@ -61,15 +68,17 @@ public class ReportsFragment extends Fragment {
 	private View scrollViewFirstchild;
 	private CirclePageIndicator circlePageIndicator;
 
-	private View healthyView;
+	private ViewStub healthyStub;
+	private ViewStub saveOthersStub;
+	private ViewStub hotlineStub;
+	private ViewStub infectedStub;
+
+	// only set once the card has been shown for the first time
 	private View saveOthersView;
 	private View hotlineView;
-	private View infectedView;
 
-	private TextView callHotlineLastText1;
-	private TextView callHotlineLastText2;
-	private TextView daysLeftText1;
-	private TextView daysLeftText2;
+	private long firstExposureTimestamp = 0;
+	private final SpannableStringBuilder templateBuilder = new SpannableStringBuilder();
 
 	private boolean hotlineJustCalled = false;
 
@@ -95,31 +104,26 @@ public class ReportsFragment extends Fragment {
 		scrollViewFirstchild = view.findViewById(R.id.reports_scrollview_firstChild);
 		circlePageIndicator = view.findViewById(R.id.reports_pageindicator);
 
-		healthyView = view.findViewById(R.id.reports_healthy);
-		saveOthersView = view.findViewById(R.id.reports_save_others);
-		hotlineView = view.findViewById(R.id.reports_hotline);
-		infectedView = view.findViewById(R.id.reports_infected);
-
-		callHotlineLastText1 = hotlineView.findViewById(R.id.card_encounters_last_call);
-		callHotlineLastText2 = saveOthersView.findViewById(R.id.card_encounters_last_call);
-		daysLeftText1 = hotlineView.findViewById(R.id.card_encounters_days_left);
-		daysLeftText2 = saveOthersView.findViewById(R.id.card_encounters_days_left);
-
-		Button callHotlineButton1 = hotlineView.findViewById(R.id.card_encounters_button);
-		Button callHotlineButton2 = saveOthersView.findViewById(R.id.card_encounters_button);
-
-		callHotlineButton1.setOnClickListener(view1 -> callHotline());
-		callHotlineButton2.setOnClickListener(view1 -> callHotline());
-
-		View link1 = infectedView.findViewById(R.id.card_encounters_link);
-		View link2 = hotlineView.findViewById(R.id.card_encounters_link);
-		View link3 = saveOthersView.findViewById(R.id.card_encounters_link);
-		View link4 = healthyView.findViewById(R.id.card_encounters_link);
-
-		link1.setOnClickListener(v -> openLink(R.string.meldungen_explanation_link_url));
-		link2.setOnClickListener(v -> openLink(R.string.meldungen_explanation_link_url));
-		link3.setOnClickListener(v -> openLink(R.string.meldungen_explanation_link_url));
-		link4.setOnClickListener(v -> openLink(R.string.no_meldungen_box_url));
+		// the cards are mutually exclusive, each one is inflated when it is shown for the first time
+		healthyStub = view.findViewById(R.id.reports_healthy_stub);
+		saveOthersStub = view.findViewById(R.id.reports_save_others_stub);
+		hotlineStub = view.findViewById(R.id.reports_hotline_stub);
+		infectedStub = view.findViewById(R.id.reports_infected_stub);
+		hotlineView = null;
+		saveOthersView = null;
+
+		healthyStub.setOnInflateListener((stub, card) -> card.findViewById(R.id.card_encounters_link)
+				.setOnClickListener(v -> openLink(R.string.no_meldungen_box_url)));
+		infectedStub.setOnInflateListener((stub, card) -> card.findViewById(R.id.card_encounters_link)
+				.setOnClickListener(v -> openLink(R.string.meldungen_explanation_link_url)));
+		hotlineStub.setOnInflateListener((stub, card) -> {
+			hotlineView = card;
+			setupCallCard(card);
+		});
+		saveOthersStub.setOnInflateListener((stub, card) -> {
+			saveOthersView = card;
+			setupCallCard(card);
+		});
 
 		pagerAdapter = new ReportsSlidePageAdapter();
 		headerViewPager.setAdapter(pagerAdapter);
@@ -127,52 +131,37 @@ public class ReportsFragment extends Fragment {
 
 		tracingViewModel.getAppStatusLiveData().observe(getViewLifecycleOwner(), tracingStatusInterface -> {
 
-			healthyView.setVisibility(View.GONE);
-			saveOthersView.setVisibility(View.GONE);
-			hotlineView.setVisibility(View.GONE);
-			infectedView.setVisibility(View.GONE);
+			boolean isInfected = tracingStatusInterface.isReportedAsInfected();
+			boolean isExposed = !isInfected && tracingStatusInterface.wasContactReportedAsExposed();
+			boolean isHotlineCallPending = isExposed && secureStorage.isHotlineCallPending();
 
 			List<Pair<ReportsPagerFragment.Type, Long>> items = new ArrayList<>();
-			if (tracingStatusInterface.isReportedAsInfected()) {
-				infectedView.setVisibility(View.VISIBLE);
+			firstExposureTimestamp = 0;
+			if (isInfected) {
 				items.add(new Pair<>(ReportsPagerFragment.Type.POSITIVE_TESTED, secureStorage.getInfectedDate()));
-			} else if (tracingStatusInterface.wasContactReportedAsExposed()) {
+			} else if (isExposed) {
 				List<ExposureDay> exposureDays = tracingStatusInterface.getExposureDays();
-				boolean isHotlineCallPending = secureStorage.isHotlineCallPending();
-				if (isHotlineCallPending) {
-					hotlineView.setVisibility(View.VISIBLE);
-				} else {
-					saveOthersView.setVisibility(View.VISIBLE);
-				}
-				daysLeftText1.setVisibility(View.GONE);
-				daysLeftText2.setVisibility(View.GONE);
 				for (int i = 0; i < exposureDays.size(); i++) {
 					ExposureDay exposureDay = exposureDays.get(i);
 					long exposureTimestamp = exposureDay.getExposedDate().getStartOfDay(TimeZone.getDefault());
 					if (i == 0) {
+						firstExposureTimestamp = exposureTimestamp;
 						items.add(new Pair<>(ReportsPagerFragment.Type.POSSIBLE_INFECTION, exposureTimestamp));
-						int daysDiff = DateUtils.getDaysDiffUntil(exposureTimestamp, 10);
-						if (daysDiff == 1) {
-							daysLeftText1.setText(R.string.date_in_one_day);
-							daysLeftText2.setText(R.string.date_in_one_day);
-							daysLeftText1.setVisibility(View.VISIBLE);
-							daysLeftText2.setVisibility(View.VISIBLE);
-						} else if (daysDiff > 1) {
-							String dateStr = getString(R.string.date_in_days).replace("{COUNT}", String.valueOf(daysDiff));
-							daysLeftText1.setText(dateStr);
-							daysLeftText2.setText(dateStr);
-							daysLeftText1.setVisibility(View.VISIBLE);
-							daysLeftText2.setVisibility(View.VISIBLE);
-						}
 					} else {
 						items.add(new Pair<>(ReportsPagerFragment.Type.NEW_CONTACT, exposureTimestamp));
 					}
 				}
 			} else {
-				healthyView.setVisibility(View.VISIBLE);
 				items.add(new Pair<>(ReportsPagerFragment.Type.NO_REPORTS, null));
 			}
 
+			// a stub is only inflated when it is made visible, hiding a card that was never shown is a no-op
+			infectedStub.setVisibility(isInfected ? View.VISIBLE : View.GONE);
+			hotlineStub.setVisibility(isHotlineCallPending ? View.VISIBLE : View.GONE);
+			saveOthersStub.setVisibility(isExposed && !isHotlineCallPending ? View.VISIBLE : View.GONE);
+			healthyStub.setVisibility(!isInfected && !isExposed ? View.VISIBLE : View.GONE);
+			bindCallCards();
+
 			/* Debug items
 			items.clear();
 			items.add(new Pair<>(ReportsPagerFragment.Type.NO_REPORTS, null));
@@ -194,6 +183,45 @@ public class ReportsFragment extends Fragment {
 		startActivity(browserIntent);
 	}
 
+	private void setupCallCard(View card) {
+		card.findViewById(R.id.card_encounters_button).setOnClickListener(v -> callHotline());
+		card.findViewById(R.id.card_encounters_link)
+				.setOnClickListener(v -> openLink(R.string.meldungen_explanation_link_url));
+	}
+
+	private void bindCallCards() {
+		if (hotlineView != null) bindCallCard(hotlineView, true);
+		if (saveOthersView != null) bindCallCard(saveOthersView, false);
+	}
+
+	private void bindCallCard(View card, boolean isHotlineCard) {
+		TextView daysLeftText = card.findViewById(R.id.card_encounters_days_left);
+		int daysDiff = firstExposureTimestamp != 0 ? DateUtils.getDaysDiffUntil(firstExposureTimestamp, 10) : 0;
+		if (daysDiff == 1) {
+			daysLeftText.setText(R.string.date_in_one_day);
+			daysLeftText.setVisibility(View.VISIBLE);
+		} else if (daysDiff > 1) {
+			daysLeftText.setText(StringTemplate.get(requireContext(), R.string.date_in_days)
+					.appendTo(StringTemplate.reset(templateBuilder), daysDiff));
+			daysLeftText.setVisibility(View.VISIBLE);
+		} else {
+			daysLeftText.setVisibility(View.GONE);
+		}
+
+		TextView lastCallText = card.findViewById(R.id.card_encounters_last_call);
+		long lastHotlineCallTimestamp = secureStorage.lastHotlineCallTimestamp();
+		if (lastHotlineCallTimestamp != 0) {
+			if (isHotlineCard) {
+				((TextView) card.findViewById(R.id.card_encounters_title)).setText(R.string.meldungen_detail_call_again);
+			}
+			String lastCall = DateUtils.getFormattedDateTime(lastHotlineCallTimestamp);
+			lastCallText.setText(StringTemplate.get(requireContext(), R.string.meldungen_detail_call_last_call)
+					.appendTo(StringTemplate.reset(templateBuilder), lastCall));
+		} else {
+			lastCallText.setText("");
+		}
+	}
+
 	private void callHotline() {
 		hotlineJustCalled = true;
 		secureStorage.justCalledHotline();
@@ -206,22 +234,11 @@ public class ReportsFragment extends Fragment {
 
 		if (hotlineJustCalled) {
 			hotlineJustCalled = false;
-			hotlineView.setVisibility(View.GONE);
-			saveOthersView.setVisibility(View.VISIBLE);
+			hotlineStub.setVisibility(View.GONE);
+			saveOthersStub.setVisibility(View.VISIBLE);
 		}
 
-		long lastHotlineCallTimestamp = secureStorage.lastHotlineCallTimestamp();
-		if (lastHotlineCallTimestamp != 0) {
-			((TextView) hotlineView.findViewById(R.id.card_encounters_title)).setText(R.string.meldungen_detail_call_again);
-
-			String date = DateUtils.getFormattedDateTime(lastHotlineCallTimestamp);
-			date = getString(R.string.meldungen_detail_call_last_call).replace("{DATE}", date);
-			callHotlineLastText1.setText(date);
-			callHotlineLastText2.setText(date);
-		} else {
-			callHotlineLastText1.setText("");
-			callHotlineLastText2.setText("");
-		}
+		bindCallCards();
 	}
 
 	public void doHeaderAnimation(View info, View image, Button button) {
@@ -310,20 +327,7 @@ public class ReportsFragment extends Fragment {
 
 		int scrollRangePx = scrollViewFirstchild.getPaddingTop();
 		int translationRangePx = -getResources().getDimensionPixelSize(R.dimen.spacing_huge);
-		scrollView.setOnScrollChangeListener((v, scrollX, scrollY, oldScrollX, oldScrollY) -> {
-			float progress = computeScrollAnimProgress(scrollY, scrollRangePx);
-			headerParent.setAlpha(1 - progress);
-			headerParent.setTranslationY(progress * translationRangePx);
-		});
-		scrollView.post(() -> {
-			float progress = computeScrollAnimProgress(scrollView.getScrollY(), scrollRangePx);
-			headerParent.setAlpha(1 - progress);
-			headerParent.setTranslationY(progress * translationRangePx);
-		});
-	}
-
-	private float computeScrollAnimProgress(int scrollY, int scrollRange) {
-		return Math.min(scrollY, scrollRange) / (float) scrollRange;
+		HeaderScrollEffect.attach(scrollView, headerParent, scrollRangePx, translationRangePx);
 	}
 
 	private class ReportsSlidePageAdapter extends FragmentStateAdapter {
@@ -332,19 +336,46 @@ public class ReportsFragment extends Fragment {
 
 		boolean isReportsHeaderAnimationPending = false;
 
+		private Boolean appliedMultiplePages = null;
+		private Boolean appliedHeaderAnimationPending = null;
+
 		ReportsSlidePageAdapter() {
 			super(ReportsFragment.this);
 		}
 
 		void updateItems(List<Pair<ReportsPagerFragment.Type, Long>> items) {
 
+			boolean wasReportsHeaderAnimationPending = isReportsHeaderAnimationPending;
 			isReportsHeaderAnimationPending = secureStorage.isReportsHeaderAnimationPending();
 
+			List<Pair<ReportsPagerFragment.Type, Long>> oldItems = new ArrayList<>(this.items);
+			DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(
+					new ItemDiffCallback(oldItems, wasReportsHeaderAnimationPending, items, isReportsHeaderAnimationPending));
 			this.items.clear();
 			this.items.addAll(items);
-			notifyDataSetChanged();
+			diffResult.dispatchUpdatesTo(this);
+
+			boolean multiplePages = items.size() > 1;
+			boolean layoutChanged = !Boolean.valueOf(multiplePages).equals(appliedMultiplePages) ||
+					!Boolean.valueOf(isReportsHeaderAnimationPending).equals(appliedHeaderAnimationPending);
+
+			if (layoutChanged) {
+				appliedMultiplePages = multiplePages;
+				appliedHeaderAnimationPending = isReportsHeaderAnimationPending;
+				applyHeaderLayout(multiplePages);
+			}
 
-			if (items.size() > 1) {
+			if (layoutChanged || oldItems.size() != items.size()) {
+				headerViewPager.post(() -> {
+					headerViewPager.setCurrentItem(items.size() - 1, false);
+
+					setupScrollBehavior();
+				});
+			}
+		}
+
+		private void applyHeaderLayout(boolean multiplePages) {
+			if (multiplePages) {
 				if (!isReportsHeaderAnimationPending) circlePageIndicator.setVisibility(View.VISIBLE);
 				ViewGroup.LayoutParams lp = headerViewPager.getLayoutParams();
 				lp.height = getResources().getDimensionPixelSize(R.dimen.header_height_reports_with_indicator);
@@ -363,7 +394,7 @@ public class ReportsFragment extends Fragment {
 			}
 
 			updateHeaderSize(isReportsHeaderAnimationPending);
-			
+
 			if (isReportsHeaderAnimationPending) {
 				headerViewPager.setUserInputEnabled(false);
 
@@ -371,12 +402,6 @@ public class ReportsFragment extends Fragment {
 
 				scrollViewFirstchild.setVisibility(View.GONE);
 			}
-
-			headerViewPager.post(() -> {
-				headerViewPager.setCurrentItem(items.size() - 1, false);
-
-				setupScrollBehavior();
-			});
 		}
 
 		@NonNull
@@ -387,7 +412,7 @@ public class ReportsFragment extends Fragment {
 			ReportsPagerFragment.Type type = item.first;
 			long timestamp = item.second == null ? 0 : item.second;
 
-			boolean showAnimationControls = isReportsHeaderAnimationPending && position == items.size() - 1;
+			boolean showAnimationControls = showsAnimationControls(items, position, isReportsHeaderAnimationPending);
 
 			switch (type) {
 				case NO_REPORTS:
@@ -410,6 +435,82 @@ public class ReportsFragment extends Fragment {
 			return items.size();
 		}
 
+		@Override
+		public long getItemId(int position) {
+			return getStableId(items, position, isReportsHeaderAnimationPending);
+		}
+
+		@Override
+		public boolean containsItem(long itemId) {
+			for (int i = 0; i < items.size(); i++) {
+				if (getStableId(items, i, isReportsHeaderAnimationPending) == itemId) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * The animation controls are passed to the page fragment when it is created, so they are part of the id: a page
+		 * that gains or loses them gets a new id and therefore a new fragment.
+		 */
+		private long getStableId(List<Pair<ReportsPagerFragment.Type, Long>> items, int position,
+				boolean headerAnimationPending) {
+			int animationControls = showsAnimationControls(items, position, headerAnimationPending) ? 1 : 0;
+			return getPageId(items.get(position)) * 2 + animationControls;
+		}
+
+		private long getPageId(Pair<ReportsPagerFragment.Type, Long> item) {
+			long timestamp = item.second == null ? 0 : item.second;
+			return timestamp * NUM_PAGER_TYPES + item.first.ordinal();
+		}
+
+		private boolean showsAnimationControls(List<Pair<ReportsPagerFragment.Type, Long>> items, int position,
+				boolean headerAnimationPending) {
+			ReportsPagerFragment.Type type = items.get(position).first;
+			return headerAnimationPending && position == items.size() - 1 &&
+					(type == ReportsPagerFragment.Type.POSSIBLE_INFECTION || type == ReportsPagerFragment.Type.NEW_CONTACT);
+		}
+
+		private class ItemDiffCallback extends DiffUtil.Callback {
+
+			private final List<Pair<ReportsPagerFragment.Type, Long>> oldItems;
+			private final boolean oldHeaderAnimationPending;
+			private final List<Pair<ReportsPagerFragment.Type, Long>> newItems;
+			private final boolean newHeaderAnimationPending;
+
+			ItemDiffCallback(List<Pair<ReportsPagerFragment.Type, Long>> oldItems, boolean oldHeaderAnimationPending,
+					List<Pair<ReportsPagerFragment.Type, Long>> newItems, boolean newHeaderAnimationPending) {
+				this.oldItems = oldItems;
+				this.oldHeaderAnimationPending = oldHeaderAnimationPending;
+				this.newItems = newItems;
+				this.newHeaderAnimationPending = newHeaderAnimationPending;
+			}
+
+			@Override
+			public int getOldListSize() {
+				return oldItems.size();
+			}
+
+			@Override
+			public int getNewListSize() {
+				return newItems.size();
+			}
+
+			@Override
+			public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+				return getPageId(oldItems.get(oldItemPosition)) == getPageId(newItems.get(newItemPosition));
+			}
+
+			@Override
+			public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+				// a changed page is rebound with its new stable id, which replaces its fragment
+				return showsAnimationControls(oldItems, oldItemPosition, oldHeaderAnimationPending) ==
+						showsAnimationControls(newItems, newItemPosition, newHeaderAnimationPending);
+			}
+
+		}
+
 	}
 
 }
@@ -11,17 +11,21 @@
 package org.dpppt.android.app.reports;
 
 import android.os.Bundle;
+import android.text.SpannableStringBuilder;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
+import android.widget.FrameLayout;
 import android.widget.TextView;
+import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import org.dpppt.android.app.R;
 import org.dpppt.android.app.util.DateUtils;
+import org.dpppt.android.app.util.StringTemplate;
 
 public class ReportsPagerFragment extends Fragment {
 
@@ -50,6 +54,8 @@ public class ReportsPagerFragment extends Fragment {
 	private long timestamp;
 	private boolean showAnimationControls;
 
+	private FrameLayout pageContainer;
+
 	@Override
 	public void onCreate(@Nullable Bundle savedInstanceState) {
 		super.onCreate(savedInstanceState);
@@ -64,45 +70,61 @@ public class ReportsPagerFragment extends Fragment {
 	public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
 			@Nullable Bundle savedInstanceState) {
 
-		View view = null;
+		FrameLayout pageContainer = new FrameLayout(inflater.getContext());
+		pageContainer.setLayoutParams(
+				new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+		this.pageContainer = pageContainer;
+
+		ReportsPagerViewPool.getInstance(requireActivity()).acquire(getLayoutRes(type), content -> {
+			if (this.pageContainer != pageContainer) return;
+			pageContainer.addView(content);
+			bindContent(content);
+		});
+
+		return pageContainer;
+	}
 
+	@Override
+	public void onDestroyView() {
+		super.onDestroyView();
+		pageContainer = null;
+	}
+
+	@LayoutRes
+	private static int getLayoutRes(Type type) {
 		switch (type) {
 			case NO_REPORTS:
-				view = inflater.inflate(R.layout.fragment_reports_pager_no_reports, container, false);
-				break;
+				return R.layout.fragment_reports_pager_no_reports;
 			case POSSIBLE_INFECTION:
-				view = inflater.inflate(R.layout.fragment_reports_pager_possible_infection, container, false);
-				break;
 			case NEW_CONTACT:
-				view = inflater.inflate(R.layout.fragment_reports_pager_possible_infection, container, false);
-				TextView title = view.findViewById(R.id.fragment_reports_pager_title);
-				TextView subTitle = view.findViewById(R.id.fragment_reports_pager_subtitle);
-				title.setText(R.string.meldung_detail_new_contact_title);
-				subTitle.setText(R.string.meldung_detail_new_contact_subtitle);
-				break;
+				return R.layout.fragment_reports_pager_possible_infection;
 			case POSITIVE_TESTED:
-				view = inflater.inflate(R.layout.fragment_reports_pager_positive_tested, container, false);
-				break;
+				return R.layout.fragment_reports_pager_positive_tested;
 		}
-
-		return view;
+		throw new IllegalArgumentException("Unknown report type: " + type);
 	}
 
-	@Override
-	public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+	private void bindContent(@NonNull View view) {
+
+		if (type == Type.NEW_CONTACT) {
+			TextView title = view.findViewById(R.id.fragment_reports_pager_title);
+			TextView subTitle = view.findViewById(R.id.fragment_reports_pager_subtitle);
+			title.setText(R.string.meldung_detail_new_contact_title);
+			subTitle.setText(R.string.meldung_detail_new_contact_subtitle);
+		}
 
 		if (timestamp != 0) {
 			TextView date = view.findViewById(R.id.fragment_reports_pager_date);
 
-			String dateStr = DateUtils.getFormattedDate(timestamp) + " / ";
+			SpannableStringBuilder dateStr = new SpannableStringBuilder(DateUtils.getFormattedDate(timestamp)).append(" / ");
 			int daysDiff = DateUtils.getDaysDiff(timestamp);
 
 			if (daysDiff == 0) {
-				dateStr += getString(R.string.date_today);
+				dateStr.append(getString(R.string.date_today));
 			} else if (daysDiff == 1) {
-				dateStr += getString(R.string.date_one_day_ago);
+				dateStr.append(getString(R.string.date_one_day_ago));
 			} else {
-				dateStr += getString(R.string.date_days_ago).replace("{COUNT}", String.valueOf(daysDiff));
+				StringTemplate.get(requireContext(), R.string.date_days_ago).appendTo(dateStr, daysDiff);
 			}
 			date.setText(dateStr);
 		}
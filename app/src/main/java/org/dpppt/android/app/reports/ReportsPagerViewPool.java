@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.reports;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.FrameLayout;
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.fragment.app.FragmentActivity;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.dpppt.android.app.R;
+
+/**
+ * Keeps a small number of report pager pages inflated in the background, so the reports screen can attach its pages
+ * without inflating the illustration-heavy layouts on the main thread. The pool is bound to the activity whose theme the
+ * views were inflated with and is dropped when that activity is destroyed.
+ * <p>
+ * The background inflater is a clone of the activity's inflater, so it uses the same view factories as a synchronous
+ * inflation would (AsyncLayoutInflater drops them and would inflate e.g. plain framework widgets instead).
+ */
+public class ReportsPagerViewPool {
+
+	private static final int[] POOLED_LAYOUTS = new int[] {
+			R.layout.fragment_reports_pager_no_reports,
+			R.layout.fragment_reports_pager_possible_infection,
+			R.layout.fragment_reports_pager_positive_tested };
+	private static final int[] POOL_SIZES = new int[] { 1, 2, 1 };
+
+	private static final String TAG = "ReportsPagerViewPool";
+
+	private static final Map<FragmentActivity, ReportsPagerViewPool> instances = new WeakHashMap<>();
+	private static final ExecutorService inflateExecutor = Executors.newSingleThreadExecutor();
+
+	private final LayoutInflater activityInflater;
+	private final LayoutInflater backgroundInflater;
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+	private final FrameLayout layoutParamsParent;
+	private final SparseArray<ArrayDeque<View>> pooledViews = new SparseArray<>();
+	private final SparseIntArray pendingInflations = new SparseIntArray();
+
+	private boolean warmUpScheduled = false;
+	private boolean destroyed = false;
+
+	public static ReportsPagerViewPool getInstance(@NonNull FragmentActivity activity) {
+		ReportsPagerViewPool instance = instances.get(activity);
+		if (instance == null) {
+			instance = new ReportsPagerViewPool(activity);
+			instances.put(activity, instance);
+		}
+		return instance;
+	}
+
+	private ReportsPagerViewPool(FragmentActivity activity) {
+		activityInflater = LayoutInflater.from(activity);
+		// cloning keeps the factories, a separate instance because an inflater must not be used by two threads at once
+		backgroundInflater = activityInflater.cloneInContext(activity);
+		layoutParamsParent = new FrameLayout(activity);
+		activity.getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
+			if (event == Lifecycle.Event.ON_DESTROY) {
+				destroyed = true;
+				pooledViews.clear();
+				instances.remove(activity);
+			}
+		});
+	}
+
+	/**
+	 * Fills the pool up to its target size once the main thread is idle.
+	 */
+	public void scheduleWarmUp() {
+		if (warmUpScheduled || destroyed) return;
+		warmUpScheduled = true;
+		Looper.myQueue().addIdleHandler(() -> {
+			warmUpScheduled = false;
+			warmUp();
+			return false;
+		});
+	}
+
+	private void warmUp() {
+		for (int i = 0; i < POOLED_LAYOUTS.length; i++) {
+			int layoutRes = POOLED_LAYOUTS[i];
+			int missing = POOL_SIZES[i] - getPool(layoutRes).size() - pendingInflations.get(layoutRes);
+			for (int j = 0; j < missing; j++) {
+				pendingInflations.put(layoutRes, pendingInflations.get(layoutRes) + 1);
+				inflateInBackground(layoutRes, view -> {
+					pendingInflations.put(layoutRes, pendingInflations.get(layoutRes) - 1);
+					if (!destroyed) {
+						getPool(layoutRes).add(view);
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * Hands out a pooled view for the given layout, synchronously if one is ready, otherwise as soon as it has been
+	 * inflated off the main thread.
+	 */
+	public void acquire(@LayoutRes int layoutRes, @NonNull OnViewReadyListener listener) {
+		View view = getPool(layoutRes).poll();
+		if (view != null) {
+			listener.onViewReady(view);
+		} else {
+			inflateInBackground(layoutRes, listener);
+		}
+		scheduleWarmUp();
+	}
+
+	private void inflateInBackground(@LayoutRes int layoutRes, @NonNull OnViewReadyListener listener) {
+		inflateExecutor.execute(() -> {
+			View view;
+			try {
+				view = backgroundInflater.inflate(layoutRes, layoutParamsParent, false);
+			} catch (RuntimeException e) {
+				// e.g. a view that needs a Looper in its constructor, inflate it on the main thread instead
+				Log.w(TAG, "Could not inflate layout in the background", e);
+				view = null;
+			}
+			View backgroundView = view;
+			mainHandler.post(() -> listener.onViewReady(
+					backgroundView != null ? backgroundView : activityInflater.inflate(layoutRes, layoutParamsParent, false)));
+		});
+	}
+
+	private ArrayDeque<View> getPool(@LayoutRes int layoutRes) {
+		ArrayDeque<View> pool = pooledViews.get(layoutRes);
+		if (pool == null) {
+			pool = new ArrayDeque<>();
+			pooledViews.put(layoutRes, pool);
+		}
+		return pool;
+	}
+
+	public interface OnViewReadyListener {
+		void onViewReady(@NonNull View view);
+	}
+
+}
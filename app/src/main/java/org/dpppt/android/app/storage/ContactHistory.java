@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.storage;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.dpppt.android.app.util.DateUtils;
+
+/**
+ * Number of new contacts per day over the retention window of the SDK. The SDK only reports the current total, so every
+ * status update adds the increase since the previous total to the slot of the current day in a {@link DailyCountRing} of
+ * {@link #CAPACITY} days. A decreasing total means the SDK deleted old contacts and is not counted. The buffer is
+ * persisted in one small file whenever it changes.
+ */
+public class ContactHistory {
+
+	private static final String TAG = "ContactHistory";
+
+	public static final int CAPACITY = 21;
+
+	private static final String FILE_NAME = "contact_history";
+	private static final int FILE_VERSION = 1;
+
+	private static ContactHistory instance;
+
+	private final AtomicFile file;
+	private final DailyCountRing ring = new DailyCountRing(CAPACITY);
+
+	private final MutableLiveData<int[]> dailyCountsLiveData;
+
+	public static synchronized ContactHistory getInstance(Context context) {
+		if (instance == null) {
+			instance = new ContactHistory(context);
+		}
+		return instance;
+	}
+
+	private ContactHistory(@NonNull Context context) {
+		file = new AtomicFile(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+		read();
+		dailyCountsLiveData = new MutableLiveData<>(getDailyCounts());
+	}
+
+	/**
+	 * @return the counts of the last {@link #CAPACITY} days up to today, oldest first, updated on every change
+	 */
+	public LiveData<int[]> getDailyCountsLiveData() {
+		return dailyCountsLiveData;
+	}
+
+	/**
+	 * Adds the increase of the SDK's contact total since the last call to today's count.
+	 */
+	public synchronized void update(int totalContacts) {
+		if (ring.update(DateUtils.getToday(), totalContacts)) {
+			write();
+			dailyCountsLiveData.postValue(getDailyCounts());
+		}
+	}
+
+	/**
+	 * Drops the history, called when the SDK data is cleared.
+	 */
+	public synchronized void clear() {
+		ring.clear();
+		file.delete();
+		dailyCountsLiveData.postValue(getDailyCounts());
+	}
+
+	private synchronized int[] getDailyCounts() {
+		return ring.getDailyCounts(DateUtils.getToday());
+	}
+
+	private void read() {
+		try (DataInputStream in = new DataInputStream(file.openRead())) {
+			if (in.readInt() != FILE_VERSION || in.readInt() != CAPACITY) return;
+			ring.readFrom(in);
+		} catch (FileNotFoundException e) {
+			// no history recorded yet
+		} catch (IOException e) {
+			Log.e(TAG, "Could not read contact history", e);
+		}
+	}
+
+	private void write() {
+		FileOutputStream out = null;
+		try {
+			out = file.startWrite();
+			DataOutputStream data = new DataOutputStream(out);
+			data.writeInt(FILE_VERSION);
+			data.writeInt(CAPACITY);
+			ring.writeTo(data);
+			data.flush();
+			file.finishWrite(out);
+		} catch (IOException e) {
+			Log.e(TAG, "Could not write contact history", e);
+			if (out != null) file.failWrite(out);
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The ring buffer behind {@link ContactHistory}: one count per epoch day for the last {@code capacity} days, fed with a
+ * running total of which only the increases are counted. Not thread-safe, the history synchronizes all access.
+ */
+class DailyCountRing {
+
+	private static final int NO_DAY = Integer.MIN_VALUE;
+
+	private final int[] dailyCounts;
+	private int lastDay = NO_DAY;
+	private int lastTotal = -1;
+
+	DailyCountRing(int capacity) {
+		dailyCounts = new int[capacity];
+	}
+
+	/**
+	 * Adds the increase of the total since the last call to the count of the given day.
+	 *
+	 * @return whether the state changed and needs to be persisted
+	 */
+	boolean update(int today, int total) {
+		// a clock set back in time keeps counting on the newest day instead of overwriting newer slots
+		int day = lastDay == NO_DAY ? today : Math.max(today, lastDay);
+		boolean changed = advanceTo(day);
+		if (lastTotal >= 0 && total > lastTotal) {
+			dailyCounts[getSlot(day)] += total - lastTotal;
+		}
+		if (total != lastTotal) {
+			lastTotal = total;
+			changed = true;
+		}
+		return changed;
+	}
+
+	/**
+	 * @return the counts of the days up to the given day, oldest first
+	 */
+	int[] getDailyCounts(int today) {
+		int capacity = dailyCounts.length;
+		int[] counts = new int[capacity];
+		for (int i = 0; i < capacity; i++) {
+			int day = today - (capacity - 1 - i);
+			if (lastDay != NO_DAY && day <= lastDay && day > lastDay - capacity) {
+				counts[i] = dailyCounts[getSlot(day)];
+			}
+		}
+		return counts;
+	}
+
+	void clear() {
+		for (int i = 0; i < dailyCounts.length; i++) {
+			dailyCounts[i] = 0;
+		}
+		lastDay = NO_DAY;
+		lastTotal = -1;
+	}
+
+	void writeTo(DataOutput out) throws IOException {
+		out.writeInt(lastDay);
+		out.writeInt(lastTotal);
+		for (int count : dailyCounts) {
+			out.writeInt(count);
+		}
+	}
+
+	/**
+	 * Replaces the state with the one written by {@link #writeTo}, the state is left unchanged if the input ends early.
+	 */
+	void readFrom(DataInput in) throws IOException {
+		int storedLastDay = in.readInt();
+		int storedLastTotal = in.readInt();
+		int[] storedCounts = new int[dailyCounts.length];
+		for (int i = 0; i < storedCounts.length; i++) {
+			storedCounts[i] = in.readInt();
+		}
+		System.arraycopy(storedCounts, 0, dailyCounts, 0, storedCounts.length);
+		lastDay = storedLastDay;
+		lastTotal = storedLastTotal;
+	}
+
+	private boolean advanceTo(int day) {
+		if (day == lastDay) return false;
+		if (lastDay != NO_DAY) {
+			int clearedDays = Math.min(day - lastDay, dailyCounts.length);
+			for (int i = 1; i <= clearedDays; i++) {
+				dailyCounts[getSlot(lastDay + i)] = 0;
+			}
+		}
+		lastDay = day;
+		return true;
+	}
+
+	private int getSlot(int day) {
+		int slot = day % dailyCounts.length;
+		return slot < 0 ? slot + dailyCounts.length : slot;
+	}
+
+}
@@ -21,6 +21,8 @@ import androidx.security.crypto.MasterKeys;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 
+import org.dpppt.android.app.util.PerformanceMetrics;
+
 public class SecureStorage {
 
 	private static final String PREFERENCES = "SecureStorage";
@@ -29,8 +31,12 @@ public class SecureStorage {
 	private static final String KEY_INFORM_TIME_REQ = "inform_time_req";
 	private static final String KEY_INFORM_CODE_REQ = "inform_code_req";
 	private static final String KEY_INFORM_TOKEN_REQ = "inform_token_req";
+	private static final String KEY_INFORM_ONSET_DATE_REQ = "inform_onset_date_req";
+	private static final String KEY_INFORM_REQ_PENDING = "inform_req_pending";
 	private static final String KEY_ONBOARDING_COMPLETED = "onboarding_completed";
 	private static final String KEY_LAST_SHOWN_CONTACT_ID = "last_shown_contact_id";
+	private static final String KEY_CONTACT_NOTIFICATION_DAY = "contact_notification_day";
+	private static final String KEY_CONTACT_NOTIFICATION_COUNT = "contact_notification_count";
 	private static final String KEY_HOTLINE_CALL_PENDING = "hotline_call_pending";
 	private static final String KEY_HOTLINE_LAST_CALL_TIMESTAMP = "hotline_ever_called_timestamp";
 	private static final String KEY_PENDING_REPORTS_HEADER_ANIMATION = "pending_reports_header_animation";
@@ -50,22 +56,27 @@ public class SecureStorage {
 	private final MutableLiveData<Boolean> hasInfoboxLiveData;
 
 	private SecureStorage(@NonNull Context context) {
+		long initStart = PerformanceMetrics.startTimer();
 		try {
 			String masterKeys = MasterKeys.getOrCreate(MasterKeys.AES256_GCM_SPEC);
 			this.prefs = EncryptedSharedPreferences
 					.create(PREFERENCES, masterKeys, context, EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
 							EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM);
 
+			if (PerformanceMetrics.ENABLED) {
+				this.prefs = new TimedSharedPreferences(this.prefs);
+			}
 		} catch (GeneralSecurityException | IOException e) {
 			this.prefs = null;
 			e.printStackTrace();
 		}
+		PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SECURE_STORAGE_INIT, initStart);
 
 		forceUpdateLiveData = new MutableLiveData<>(getDoForceUpdate());
 		hasInfoboxLiveData = new MutableLiveData<>(getHasInfobox());
 	}
 
-	public static SecureStorage getInstance(Context context) {
+	public static synchronized SecureStorage getInstance(Context context) {
 		if (instance == null) {
 			instance = new SecureStorage(context);
 		}
@@ -99,9 +110,31 @@ public class SecureStorage {
 		prefs.edit().remove(KEY_INFORM_TIME_REQ)
 				.remove(KEY_INFORM_CODE_REQ)
 				.remove(KEY_INFORM_TOKEN_REQ)
+				.remove(KEY_INFORM_ONSET_DATE_REQ)
 				.apply();
 	}
 
+	public void saveInformRequest(String informCode, long onsetDate) {
+		// written synchronously, the outbox worker might run in a new process before an apply() reached the disk
+		prefs.edit().putLong(KEY_INFORM_TIME_REQ, System.currentTimeMillis())
+				.putString(KEY_INFORM_CODE_REQ, informCode)
+				.putLong(KEY_INFORM_ONSET_DATE_REQ, onsetDate)
+				.putBoolean(KEY_INFORM_REQ_PENDING, true)
+				.commit();
+	}
+
+	public long getLastInformOnsetDate() {
+		return prefs.getLong(KEY_INFORM_ONSET_DATE_REQ, 0);
+	}
+
+	public boolean isInformRequestPending() {
+		return prefs.getBoolean(KEY_INFORM_REQ_PENDING, false);
+	}
+
+	public void setInformRequestPending(boolean pending) {
+		prefs.edit().putBoolean(KEY_INFORM_REQ_PENDING, pending).apply();
+	}
+
 	public long getLastInformRequestTime() {
 		return prefs.getLong(KEY_INFORM_TIME_REQ, 0);
 	}
@@ -130,6 +163,20 @@ public class SecureStorage {
 		prefs.edit().putInt(KEY_LAST_SHOWN_CONTACT_ID, contactId).apply();
 	}
 
+	public int getContactNotificationDay() {
+		return prefs.getInt(KEY_CONTACT_NOTIFICATION_DAY, -1);
+	}
+
+	public int getContactNotificationCount() {
+		return prefs.getInt(KEY_CONTACT_NOTIFICATION_COUNT, 0);
+	}
+
+	public void setContactNotificationCount(int epochDay, int count) {
+		prefs.edit().putInt(KEY_CONTACT_NOTIFICATION_DAY, epochDay)
+				.putInt(KEY_CONTACT_NOTIFICATION_COUNT, count)
+				.apply();
+	}
+
 	public boolean isHotlineCallPending() {
 		return prefs.getBoolean(KEY_HOTLINE_CALL_PENDING, false);
 	}
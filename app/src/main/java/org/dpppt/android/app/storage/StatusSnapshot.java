@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.storage;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.dpppt.android.app.debug.TracingStatusWrapper;
+import org.dpppt.android.app.main.model.NotificationState;
+import org.dpppt.android.app.main.model.TracingState;
+import org.dpppt.android.app.widget.StatusWidgetProvider;
+import org.dpppt.android.sdk.InfectionStatus;
+import org.dpppt.android.sdk.TracingStatus;
+
+/**
+ * The last tracing and notification state with their error states, persisted whenever they change so the home screen
+ * widget can be rendered without initializing the SDK or the encrypted {@link SecureStorage}. The snapshot only holds the
+ * summary states that the widget displays anyway and is kept in plain shared preferences for that reason.
+ * <p>
+ * All SDK statuses are interpreted by the snapshot's own status wrapper, so the error hysteresis is applied once no
+ * matter which component reports a status. Error states that change with time alone are picked up by a widget refresh
+ * scheduled at the wrapper's next error state update time, which derives them again from the last status without asking
+ * the SDK. The SDK errors and the last sync date are persisted as well for a refresh in a new process.
+ */
+public class StatusSnapshot {
+
+	private static final String PREFERENCES = "StatusSnapshot";
+
+	private static final String KEY_TRACING_STATE = "tracing_state";
+	private static final String KEY_NOTIFICATION_STATE = "notification_state";
+	private static final String KEY_TRACING_ERROR_STATE = "tracing_error_state";
+	private static final String KEY_REPORT_ERROR_STATE = "report_error_state";
+	private static final String KEY_ERRORS = "errors";
+	private static final String KEY_LAST_SYNC_DATE = "last_sync_date";
+
+	private static final long REFRESH_NOT_SCHEDULED = -1;
+
+	private static StatusSnapshot instance;
+
+	private final Context context;
+	private final SharedPreferences prefs;
+	private final TracingStatusWrapper statusWrapper = new TracingStatusWrapper();
+
+	private TracingState tracingState;
+	private NotificationState notificationState;
+	private TracingStatus.ErrorState tracingErrorState;
+	private TracingStatus.ErrorState reportErrorState;
+	private TracingStatus lastStatus;
+	private long scheduledRefreshTime = REFRESH_NOT_SCHEDULED;
+
+	private StatusSnapshot(@NonNull Context context) {
+		this.context = context.getApplicationContext();
+		prefs = this.context.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+		tracingState = readEnum(TracingState.class, KEY_TRACING_STATE, TracingState.NOT_ACTIVE);
+		notificationState = readEnum(NotificationState.class, KEY_NOTIFICATION_STATE, NotificationState.NO_REPORTS);
+		tracingErrorState = readEnum(TracingStatus.ErrorState.class, KEY_TRACING_ERROR_STATE, null);
+		reportErrorState = readEnum(TracingStatus.ErrorState.class, KEY_REPORT_ERROR_STATE, null);
+	}
+
+	public static synchronized StatusSnapshot getInstance(Context context) {
+		if (instance == null) {
+			instance = new StatusSnapshot(context);
+		}
+		return instance;
+	}
+
+	public synchronized TracingState getTracingState() {
+		return tracingState;
+	}
+
+	public synchronized NotificationState getNotificationState() {
+		return notificationState;
+	}
+
+	@Nullable
+	public synchronized TracingStatus.ErrorState getTracingErrorState() {
+		return tracingErrorState;
+	}
+
+	@Nullable
+	public synchronized TracingStatus.ErrorState getReportErrorState() {
+		return reportErrorState;
+	}
+
+	/**
+	 * Stores the states derived from the given SDK status and refreshes the widgets, unless they are the ones already
+	 * stored. Moves the scheduled widget refresh if the next error state update time changed.
+	 */
+	public void update(@NonNull TracingStatus status) {
+		boolean changed;
+		long nextUpdateTime;
+		synchronized (this) {
+			if (lastStatus == null || lastStatus.getLastSyncDate() != status.getLastSyncDate() ||
+					!lastStatus.getErrors().equals(status.getErrors())) {
+				prefs.edit().putStringSet(KEY_ERRORS, toNames(status.getErrors()))
+						.putLong(KEY_LAST_SYNC_DATE, status.getLastSyncDate())
+						.apply();
+			}
+			lastStatus = status;
+			statusWrapper.setStatus(status);
+			TracingState newTracingState = statusWrapper.getTracingState();
+			NotificationState newNotificationState = statusWrapper.getNotificationState();
+			TracingStatus.ErrorState newTracingErrorState = statusWrapper.getTracingErrorState();
+			TracingStatus.ErrorState newReportErrorState = statusWrapper.getReportErrorState();
+			nextUpdateTime = statusWrapper.getNextErrorStateUpdateTime();
+			changed = newTracingState != tracingState || newNotificationState != notificationState ||
+					newTracingErrorState != tracingErrorState || newReportErrorState != reportErrorState;
+			if (changed) {
+				tracingState = newTracingState;
+				notificationState = newNotificationState;
+				tracingErrorState = newTracingErrorState;
+				reportErrorState = newReportErrorState;
+				prefs.edit().putString(KEY_TRACING_STATE, newTracingState.name())
+						.putString(KEY_NOTIFICATION_STATE, newNotificationState.name())
+						.putString(KEY_TRACING_ERROR_STATE, newTracingErrorState != null ? newTracingErrorState.name() : null)
+						.putString(KEY_REPORT_ERROR_STATE, newReportErrorState != null ? newReportErrorState.name() : null)
+						.apply();
+			}
+		}
+		if (changed) {
+			StatusWidgetProvider.updateAll(context);
+		}
+		synchronized (this) {
+			if (nextUpdateTime == scheduledRefreshTime || !StatusWidgetProvider.hasWidgets(context)) return;
+			scheduledRefreshTime = nextUpdateTime;
+		}
+		StatusWidgetProvider.scheduleRefresh(context, nextUpdateTime);
+	}
+
+	/**
+	 * Derives the states again from the last status at the current time, for the error states that change with time
+	 * alone. Without a status in memory the stored one is used.
+	 */
+	public void refresh() {
+		TracingStatus status;
+		synchronized (this) {
+			status = lastStatus != null ? lastStatus : readStoredStatus();
+		}
+		update(status);
+	}
+
+	/**
+	 * Cancels the scheduled widget refresh, called once the last widget was removed.
+	 */
+	public void cancelRefresh() {
+		synchronized (this) {
+			scheduledRefreshTime = Long.MAX_VALUE;
+		}
+		StatusWidgetProvider.scheduleRefresh(context, Long.MAX_VALUE);
+	}
+
+	private TracingStatus readStoredStatus() {
+		Set<TracingStatus.ErrorState> errors = EnumSet.noneOf(TracingStatus.ErrorState.class);
+		for (String name : prefs.getStringSet(KEY_ERRORS, Collections.emptySet())) {
+			try {
+				errors.add(TracingStatus.ErrorState.valueOf(name));
+			} catch (IllegalArgumentException e) {
+				// error of an older SDK version
+			}
+		}
+		InfectionStatus infectionStatus;
+		switch (notificationState) {
+			case POSITIVE_TESTED:
+				infectionStatus = InfectionStatus.INFECTED;
+				break;
+			case EXPOSED:
+				infectionStatus = InfectionStatus.EXPOSED;
+				break;
+			default:
+				infectionStatus = InfectionStatus.HEALTHY;
+				break;
+		}
+		boolean tracing = tracingState == TracingState.ACTIVE;
+		return new TracingStatus(0, tracing, tracing, prefs.getLong(KEY_LAST_SYNC_DATE, 0), infectionStatus,
+				Collections.emptyList(), errors);
+	}
+
+	private static Set<String> toNames(Iterable<TracingStatus.ErrorState> errors) {
+		Set<String> names = new HashSet<>();
+		for (TracingStatus.ErrorState error : errors) {
+			names.add(error.name());
+		}
+		return names;
+	}
+
+	private <T extends Enum<T>> T readEnum(Class<T> enumClass, String key, @Nullable T defaultValue) {
+		String name = prefs.getString(key, null);
+		if (name == null) return defaultValue;
+		try {
+			return Enum.valueOf(enumClass, name);
+		} catch (IllegalArgumentException e) {
+			return defaultValue;
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.storage;
+
+import android.content.SharedPreferences;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.dpppt.android.app.util.PerformanceMetrics;
+
+/**
+ * Reports the duration of every read of the wrapped preferences to {@link PerformanceMetrics}. Only used when metrics
+ * are enabled.
+ */
+class TimedSharedPreferences implements SharedPreferences {
+
+	private final SharedPreferences prefs;
+
+	TimedSharedPreferences(SharedPreferences prefs) {
+		this.prefs = prefs;
+	}
+
+	@Override
+	public Map<String, ?> getAll() {
+		long start = PerformanceMetrics.startTimer();
+		Map<String, ?> all = prefs.getAll();
+		PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SECURE_STORAGE_READ, start);
+		return all;
+	}
+
+	@Nullable
+	@Override
+	public String getString(String key, @Nullable String defValue) {
+		long start = PerformanceMetrics.startTimer();
+		String value = prefs.getString(key, defValue);
+		PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SECURE_STORAGE_READ, start);
+		return value;
+	}
+
+	@Nullable
+	@Override
+	public Set<String> getStringSet(String key, @Nullable Set<String> defValues) {
+		long start = PerformanceMetrics.startTimer();
+		Set<String> value = prefs.getStringSet(key, defValues);
+		PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SECURE_STORAGE_READ, start);
+		return value;
+	}
+
+	@Override
+	public int getInt(String key, int defValue) {
+		long start = PerformanceMetrics.startTimer();
+		int value = prefs.getInt(key, defValue);
+		PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SECURE_STORAGE_READ, start);
+		return value;
+	}
+
+	@Override
+	public long getLong(String key, long defValue) {
+		long start = PerformanceMetrics.startTimer();
+		long value = prefs.getLong(key, defValue);
+		PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SECURE_STORAGE_READ, start);
+		return value;
+	}
+
+	@Override
+	public float getFloat(String key, float defValue) {
+		long start = PerformanceMetrics.startTimer();
+		float value = prefs.getFloat(key, defValue);
+		PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SECURE_STORAGE_READ, start);
+		return value;
+	}
+
+	@Override
+	public boolean getBoolean(String key, boolean defValue) {
+		long start = PerformanceMetrics.startTimer();
+		boolean value = prefs.getBoolean(key, defValue);
+		PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SECURE_STORAGE_READ, start);
+		return value;
+	}
+
+	@Override
+	public boolean contains(String key) {
+		long start = PerformanceMetrics.startTimer();
+		boolean contains = prefs.contains(key);
+		PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SECURE_STORAGE_READ, start);
+		return contains;
+	}
+
+	@Override
+	public Editor edit() {
+		return prefs.edit();
+	}
+
+	@Override
+	public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+		prefs.registerOnSharedPreferenceChangeListener(listener);
+	}
+
+	@Override
+	public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+		prefs.unregisterOnSharedPreferenceChangeListener(listener);
+	}
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.util;
+
+import okhttp3.CertificatePinner;
+
+/**
+ * The certificate pin of the backend. The SDK builds its own clients and only gets the certificate pinner, the app makes
+ * no requests of its own.
+ */
+public class BackendCertificatePinner {
+
+	private static final String BACKEND_HOST = "demo.dpppt.org";
+	private static final String BACKEND_PIN = "sha256/YLh1dUR9y6Kja30RrAn7JKnbQG/uEtLMkBgFF2Fuihg=";
+
+	public static CertificatePinner create() {
+		return new CertificatePinner.Builder()
+				.add(BACKEND_HOST, BACKEND_PIN)
+				.build();
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.util;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import androidx.core.app.NotificationCompat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dpppt.android.app.MainActivity;
+import org.dpppt.android.app.R;
+import org.dpppt.android.app.storage.SecureStorage;
+import org.dpppt.android.sdk.DP3T;
+import org.dpppt.android.sdk.InfectionStatus;
+import org.dpppt.android.sdk.TracingStatus;
+import org.dpppt.android.sdk.internal.database.models.ExposureDay;
+
+/**
+ * Posts the new contact notification from a background thread. Status updates arriving within {@link #COALESCE_DELAY}
+ * are handled once and all exposure days that have not been notified yet are summarized in one notification. A new
+ * newest exposure day is always notified right away. Updates that only add older days to an exposure the user has
+ * already been notified about re-post the notification at most {@link #MAX_POSTS_PER_DAY} times per day, the skipped
+ * ones are counted in {@link #getSuppressedPostCount()} and posted with the next update after the limit.
+ */
+public class ContactNotificationPipeline {
+
+	private static final long COALESCE_DELAY = 1000;
+	private static final int MAX_POSTS_PER_DAY = 2;
+
+	private static ContactNotificationPipeline instance;
+
+	private final Context context;
+	private final Handler handler;
+	private final Runnable processStatusRunnable = this::processStatus;
+	private final AtomicInteger suppressedPostCount = new AtomicInteger();
+	private PendingIntent contentIntent;
+
+	public static synchronized ContactNotificationPipeline getInstance(Context context) {
+		if (instance == null) {
+			instance = new ContactNotificationPipeline(context);
+		}
+		return instance;
+	}
+
+	private ContactNotificationPipeline(Context context) {
+		this.context = context.getApplicationContext();
+		HandlerThread handlerThread = new HandlerThread("ContactNotificationPipeline");
+		handlerThread.start();
+		handler = new Handler(handlerThread.getLooper());
+	}
+
+	/**
+	 * Schedules a check of the tracing status for new exposure days, replacing a check that is still pending.
+	 */
+	public void onStatusUpdated() {
+		handler.removeCallbacks(processStatusRunnable);
+		handler.postDelayed(processStatusRunnable, COALESCE_DELAY);
+	}
+
+	public int getSuppressedPostCount() {
+		return suppressedPostCount.get();
+	}
+
+	private void processStatus() {
+		TracingStatus status = DP3T.getStatus(context);
+		if (status.getInfectionStatus() != InfectionStatus.EXPOSED) return;
+
+		SecureStorage secureStorage = SecureStorage.getInstance(context);
+		int lastShownContactId = secureStorage.getLastShownContactId();
+
+		ExposureDay newestExposureDay = null;
+		int maxContactId = Integer.MIN_VALUE;
+		for (ExposureDay day : status.getExposureDays()) {
+			if (newestExposureDay == null ||
+					day.getExposedDate().getStartOfDayTimestamp() > newestExposureDay.getExposedDate().getStartOfDayTimestamp()) {
+				newestExposureDay = day;
+			}
+			maxContactId = Math.max(maxContactId, day.getId());
+		}
+		if (newestExposureDay == null || maxContactId == lastShownContactId) return;
+
+		// ids restart after the data was cleared, then all days are new
+		boolean idsRestarted = maxContactId < lastShownContactId;
+		List<ExposureDay> newExposureDays = new ArrayList<>();
+		for (ExposureDay day : status.getExposureDays()) {
+			if (idsRestarted || day.getId() > lastShownContactId) {
+				newExposureDays.add(day);
+			}
+		}
+		boolean newestExposureDayIsNew = idsRestarted || newestExposureDay.getId() > lastShownContactId;
+
+		secureStorage.setHotlineCallPending(true);
+		secureStorage.setReportsHeaderAnimationPending(true);
+
+		int today = DateUtils.getToday();
+		if (secureStorage.getContactNotificationDay() != today) {
+			secureStorage.setContactNotificationCount(today, 0);
+		}
+		int postsToday = secureStorage.getContactNotificationCount();
+		if (!newestExposureDayIsNew && postsToday >= MAX_POSTS_PER_DAY) {
+			// the user already knows about the most recent exposure, the older days are posted with the next update
+			suppressedPostCount.incrementAndGet();
+			return;
+		}
+
+		postNotification(newExposureDays);
+		secureStorage.setContactNotificationCount(today, postsToday + 1);
+		secureStorage.setLastShownContactId(maxContactId);
+	}
+
+	private void postNotification(List<ExposureDay> newExposureDays) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+			NotificationUtil.createNotificationChannel(context);
+		}
+
+		if (contentIntent == null) {
+			Intent resultIntent = new Intent(context, MainActivity.class);
+			resultIntent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
+			resultIntent.setAction(MainActivity.ACTION_GOTO_REPORTS);
+			contentIntent = PendingIntent.getActivity(context, 0, resultIntent, PendingIntent.FLAG_UPDATE_CURRENT);
+		}
+
+		String title = context.getString(R.string.push_exposed_title);
+		String text = context.getString(R.string.push_exposed_text);
+		NotificationCompat.Builder builder = new NotificationCompat.Builder(context, NotificationUtil.NOTIFICATION_CHANNEL_ID)
+				.setContentTitle(title)
+				.setContentText(text)
+				.setPriority(NotificationCompat.PRIORITY_MAX)
+				.setSmallIcon(R.drawable.ic_begegnungen)
+				.setContentIntent(contentIntent)
+				.setOnlyAlertOnce(true)
+				.setAutoCancel(true);
+
+		if (newExposureDays.size() > 1) {
+			NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle()
+					.setBigContentTitle(title)
+					.setSummaryText(text);
+			for (ExposureDay day : newExposureDays) {
+				style.addLine(DateUtils.getFormattedDate(day.getExposedDate().getStartOfDayTimestamp()));
+			}
+			builder.setStyle(style).setNumber(newExposureDays.size());
+		}
+
+		Notification notification = builder.build();
+		NotificationManager notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+		notificationManager.notify(NotificationUtil.NOTIFICATION_ID_CONTACT, notification);
+	}
+
+}
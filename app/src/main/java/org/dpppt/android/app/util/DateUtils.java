@@ -10,47 +10,147 @@
 package org.dpppt.android.app.util;
 
 import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Day arithmetic on local epoch days, i.e. the number of calendar days since 1970-01-01 in the default time zone. Day
+ * differences are therefore counted in calendar days and are not affected by DST changes. Time zone offsets are cached
+ * per quarter hour and formatted dates per epoch day, both caches are dropped by {@link #invalidateCaches()} when the
+ * time zone or the locale changes.
+ */
 public class DateUtils {
 
-	private static final DateFormat DATE_TIME_FORMAT = SimpleDateFormat.getDateTimeInstance();
-	private static final DateFormat DATE_FORMAT = SimpleDateFormat.getDateInstance();
+	private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+	// all time zone transitions in use fall on a quarter hour
+	private static final long MILLIS_PER_OFFSET_SLOT = TimeUnit.MINUTES.toMillis(15);
 
-	public static int getDaysDiff(long date) {
+	private static final int OFFSET_CACHE_SIZE = 64;
+	private static final int DATE_CACHE_SIZE = 32;
+
+	private static final long[] offsetCacheSlots = new long[OFFSET_CACHE_SIZE];
+	private static final int[] offsetCacheValues = new int[OFFSET_CACHE_SIZE];
+	private static final int[] dateCacheDays = new int[DATE_CACHE_SIZE];
+	private static final String[] dateCacheValues = new String[DATE_CACHE_SIZE];
+
+	private static TimeZone timeZone;
+	private static volatile int formatGeneration = 0;
+
+	private static final ThreadLocal<Formats> formats = new ThreadLocal<>();
 
-		try {
-			return (int) TimeUnit.DAYS.convert(System.currentTimeMillis() - date, TimeUnit.MILLISECONDS);
-		} catch (Exception e) {
-			e.printStackTrace();
-			return 0;
+	static {
+		invalidateCaches();
+	}
+
+	/**
+	 * Drops the cached time zone offsets and formatted dates, must be called when the default time zone or locale
+	 * changes.
+	 */
+	public static void invalidateCaches() {
+		synchronized (offsetCacheSlots) {
+			timeZone = TimeZone.getDefault();
+			for (int i = 0; i < OFFSET_CACHE_SIZE; i++) {
+				offsetCacheSlots[i] = Long.MIN_VALUE;
+			}
+		}
+		synchronized (dateCacheValues) {
+			for (int i = 0; i < DATE_CACHE_SIZE; i++) {
+				dateCacheValues[i] = null;
+			}
+			formatGeneration++;
 		}
 	}
 
-	public static int getDaysDiffUntil(long date, int addDays) {
+	public static int getEpochDay(long timestamp) {
+		return (int) floorDiv(timestamp + getOffset(timestamp), MILLIS_PER_DAY);
+	}
 
-		Calendar calendar = Calendar.getInstance();
-		calendar.setTimeInMillis(date);
-		calendar.add(Calendar.DATE, addDays);
-		date = calendar.getTimeInMillis();
+	public static int getToday() {
+		return getEpochDay(System.currentTimeMillis());
+	}
 
-		try {
-			return (int) TimeUnit.DAYS.convert(date - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
-		} catch (Exception e) {
-			e.printStackTrace();
-			return 0;
-		}
+	/**
+	 * @return the number of calendar days from the given date until today
+	 */
+	public static int getDaysDiff(long date) {
+		return getToday() - getEpochDay(date);
+	}
+
+	/**
+	 * @return the number of calendar days from today until {@code addDays} days after the given date
+	 */
+	public static int getDaysDiffUntil(long date, int addDays) {
+		return getEpochDay(date) + addDays - getToday();
 	}
 
 	public static String getFormattedDateTime(long date) {
-		return DATE_TIME_FORMAT.format(new Date(date));
+		return getFormats().dateTimeFormat.format(new Date(date));
 	}
 
 	public static String getFormattedDate(long date) {
-		return DATE_FORMAT.format(new Date(date));
+		int epochDay = getEpochDay(date);
+		int slot = (int) floorMod(epochDay, DATE_CACHE_SIZE);
+		synchronized (dateCacheValues) {
+			if (dateCacheValues[slot] != null && dateCacheDays[slot] == epochDay) {
+				return dateCacheValues[slot];
+			}
+		}
+		String formattedDate = getFormats().dateFormat.format(new Date(date));
+		synchronized (dateCacheValues) {
+			dateCacheDays[slot] = epochDay;
+			dateCacheValues[slot] = formattedDate;
+		}
+		return formattedDate;
+	}
+
+	private static int getOffset(long timestamp) {
+		long offsetSlot = floorDiv(timestamp, MILLIS_PER_OFFSET_SLOT);
+		int index = (int) floorMod(offsetSlot, OFFSET_CACHE_SIZE);
+		synchronized (offsetCacheSlots) {
+			if (offsetCacheSlots[index] != offsetSlot) {
+				offsetCacheSlots[index] = offsetSlot;
+				offsetCacheValues[index] = timeZone.getOffset(timestamp);
+			}
+			return offsetCacheValues[index];
+		}
+	}
+
+	// Math.floorDiv and Math.floorMod are only available from API 24
+	private static long floorDiv(long x, long y) {
+		long quotient = x / y;
+		if ((x % y != 0) && ((x ^ y) < 0)) {
+			quotient--;
+		}
+		return quotient;
+	}
+
+	private static long floorMod(long x, long y) {
+		return x - floorDiv(x, y) * y;
+	}
+
+	private static Formats getFormats() {
+		Formats threadFormats = formats.get();
+		if (threadFormats == null || threadFormats.generation != formatGeneration) {
+			threadFormats = new Formats(formatGeneration);
+			formats.set(threadFormats);
+		}
+		return threadFormats;
+	}
+
+	/**
+	 * DateFormat is not thread safe, so every thread formats with its own instances.
+	 */
+	private static class Formats {
+
+		private final int generation;
+		private final DateFormat dateTimeFormat = DateFormat.getDateTimeInstance();
+		private final DateFormat dateFormat = DateFormat.getDateInstance();
+
+		private Formats(int generation) {
+			this.generation = generation;
+		}
+
 	}
 
 }
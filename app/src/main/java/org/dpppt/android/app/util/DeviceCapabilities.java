@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.util;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Immutable snapshot of the device features tracing depends on, as published by {@link DeviceCapabilityMonitor}.
+ */
+public final class DeviceCapabilities {
+
+	private final boolean bluetoothEnabled;
+	private final boolean locationPermissionGranted;
+	private final boolean batteryOptimizationDeactivated;
+
+	DeviceCapabilities(boolean bluetoothEnabled, boolean locationPermissionGranted, boolean batteryOptimizationDeactivated) {
+		this.bluetoothEnabled = bluetoothEnabled;
+		this.locationPermissionGranted = locationPermissionGranted;
+		this.batteryOptimizationDeactivated = batteryOptimizationDeactivated;
+	}
+
+	public boolean isBluetoothEnabled() {
+		return bluetoothEnabled;
+	}
+
+	public boolean isLocationPermissionGranted() {
+		return locationPermissionGranted;
+	}
+
+	public boolean isBatteryOptimizationDeactivated() {
+		return batteryOptimizationDeactivated;
+	}
+
+	DeviceCapabilities withBluetoothEnabled(boolean bluetoothEnabled) {
+		return new DeviceCapabilities(bluetoothEnabled, locationPermissionGranted, batteryOptimizationDeactivated);
+	}
+
+	DeviceCapabilities withPermissions(boolean locationPermissionGranted, boolean batteryOptimizationDeactivated) {
+		return new DeviceCapabilities(bluetoothEnabled, locationPermissionGranted, batteryOptimizationDeactivated);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof DeviceCapabilities)) return false;
+		DeviceCapabilities that = (DeviceCapabilities) o;
+		return bluetoothEnabled == that.bluetoothEnabled &&
+				locationPermissionGranted == that.locationPermissionGranted &&
+				batteryOptimizationDeactivated == that.batteryOptimizationDeactivated;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = bluetoothEnabled ? 1 : 0;
+		result = 31 * result + (locationPermissionGranted ? 1 : 0);
+		result = 31 * result + (batteryOptimizationDeactivated ? 1 : 0);
+		return result;
+	}
+
+	@NonNull
+	@Override
+	public String toString() {
+		return "DeviceCapabilities{" +
+				"bluetoothEnabled=" + bluetoothEnabled +
+				", locationPermissionGranted=" + locationPermissionGranted +
+				", batteryOptimizationDeactivated=" + batteryOptimizationDeactivated +
+				'}';
+	}
+
+}
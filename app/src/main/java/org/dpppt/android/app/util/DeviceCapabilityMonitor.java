@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.util;
+
+import android.bluetooth.BluetoothAdapter;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+/**
+ * Tracks the device features tracing depends on and publishes them as a single {@link DeviceCapabilities} snapshot.
+ * Bluetooth is updated from its system broadcast. The location permission and the battery optimization whitelist have no
+ * broadcast and are re-checked through {@link #invalidatePermissionState()}, which the activities call when they are
+ * resumed. The location service state is not tracked here, the SDK reports it as an error state of the tracing status.
+ */
+public class DeviceCapabilityMonitor {
+
+	private static DeviceCapabilityMonitor instance;
+
+	private final Context context;
+	private final MutableLiveData<DeviceCapabilities> capabilitiesLiveData;
+
+	private final BroadcastReceiver capabilityReceiver = new BroadcastReceiver() {
+		@Override
+		public void onReceive(Context context, Intent intent) {
+			if (BluetoothAdapter.ACTION_STATE_CHANGED.equals(intent.getAction())) {
+				int state = intent.getIntExtra(BluetoothAdapter.EXTRA_STATE, BluetoothAdapter.ERROR);
+				publish(getCapabilities().withBluetoothEnabled(state == BluetoothAdapter.STATE_ON));
+			}
+		}
+	};
+
+	public static DeviceCapabilityMonitor getInstance(Context context) {
+		if (instance == null) {
+			instance = new DeviceCapabilityMonitor(context);
+		}
+		return instance;
+	}
+
+	private DeviceCapabilityMonitor(@NonNull Context context) {
+		this.context = context.getApplicationContext();
+
+		capabilitiesLiveData = new MutableLiveData<>(new DeviceCapabilities(
+				DeviceFeatureHelper.isBluetoothEnabled(),
+				DeviceFeatureHelper.isLocationPermissionGranted(this.context),
+				DeviceFeatureHelper.isBatteryOptimizationDeactivated(this.context)));
+
+		this.context.registerReceiver(capabilityReceiver, new IntentFilter(BluetoothAdapter.ACTION_STATE_CHANGED));
+	}
+
+	public LiveData<DeviceCapabilities> getCapabilitiesLiveData() {
+		return capabilitiesLiveData;
+	}
+
+	@NonNull
+	public DeviceCapabilities getCapabilities() {
+		return capabilitiesLiveData.getValue();
+	}
+
+	public void invalidatePermissionState() {
+		publish(getCapabilities().withPermissions(
+				DeviceFeatureHelper.isLocationPermissionGranted(context),
+				DeviceFeatureHelper.isBatteryOptimizationDeactivated(context)));
+	}
+
+	private void publish(DeviceCapabilities capabilities) {
+		if (!capabilities.equals(capabilitiesLiveData.getValue())) {
+			capabilitiesLiveData.setValue(capabilities);
+		}
+	}
+
+}
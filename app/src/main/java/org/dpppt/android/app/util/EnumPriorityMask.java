@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.util;
+
+import java.util.Collection;
+
+/**
+ * Maps enum constants to bits ordered by priority, so that the highest priority constant of a set is its lowest set bit.
+ * Supports at most 64 prioritized constants, constants that are not prioritized map to no bit.
+ */
+public class EnumPriorityMask<E extends Enum<E>> {
+
+	private final E[] valuesOrderedByPriority;
+	private final long[] maskByOrdinal;
+
+	public EnumPriorityMask(Class<E> enumClass, E[] valuesOrderedByPriority) {
+		if (valuesOrderedByPriority.length > Long.SIZE) {
+			throw new IllegalArgumentException("At most " + Long.SIZE + " values can be prioritized");
+		}
+		this.valuesOrderedByPriority = valuesOrderedByPriority.clone();
+		maskByOrdinal = new long[enumClass.getEnumConstants().length];
+		for (int i = 0; i < valuesOrderedByPriority.length; i++) {
+			maskByOrdinal[valuesOrderedByPriority[i].ordinal()] = 1L << i;
+		}
+	}
+
+	public long toMask(E value) {
+		return value == null ? 0 : maskByOrdinal[value.ordinal()];
+	}
+
+	public long toMask(Collection<E> values) {
+		long mask = 0;
+		for (E value : values) {
+			mask |= toMask(value);
+		}
+		return mask;
+	}
+
+	/**
+	 * @return the mask of the values with priority index {@code from} (inclusive) to {@code to} (exclusive)
+	 */
+	public long getRangeMask(int from, int to) {
+		long upTo = to == Long.SIZE ? -1L : (1L << to) - 1;
+		return upTo & ~((1L << from) - 1);
+	}
+
+	/**
+	 * @return the value of the given mask with the highest priority, or null if the mask is empty
+	 */
+	public E getHighestPriority(long mask) {
+		if (mask == 0) return null;
+		return valuesOrderedByPriority[Long.numberOfTrailingZeros(mask)];
+	}
+
+}
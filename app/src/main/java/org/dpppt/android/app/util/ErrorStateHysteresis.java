@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.util;
+
+import java.util.Arrays;
+
+/**
+ * Filters an error mask (see {@link TracingErrorStateHelper#toMask}) so that transient errors only show up after they
+ * have been reported for {@code onsetDelayMillis} and stay visible for {@code releaseDelayMillis} after they cleared.
+ * Errors outside the transient mask pass through unchanged.
+ */
+public class ErrorStateHysteresis {
+
+	private static final long NONE = -1;
+
+	private final long transientMask;
+	private final long onsetDelayMillis;
+	private final long releaseDelayMillis;
+
+	private final long[] presentSince = new long[Long.SIZE];
+	private final long[] absentSince = new long[Long.SIZE];
+	private long filteredMask = 0;
+	private long nextUpdateTime = Long.MAX_VALUE;
+
+	public ErrorStateHysteresis(long transientMask, long onsetDelayMillis, long releaseDelayMillis) {
+		this.transientMask = transientMask;
+		this.onsetDelayMillis = onsetDelayMillis;
+		this.releaseDelayMillis = releaseDelayMillis;
+		Arrays.fill(presentSince, NONE);
+		Arrays.fill(absentSince, NONE);
+	}
+
+	public long filter(long errorMask, long now) {
+		long result = errorMask & ~transientMask;
+		nextUpdateTime = Long.MAX_VALUE;
+
+		long remaining = transientMask;
+		while (remaining != 0) {
+			int bit = Long.numberOfTrailingZeros(remaining);
+			long flag = 1L << bit;
+			remaining &= ~flag;
+
+			boolean present = (errorMask & flag) != 0;
+			boolean shown = (filteredMask & flag) != 0;
+			if (present) {
+				absentSince[bit] = NONE;
+				if (presentSince[bit] == NONE) presentSince[bit] = now;
+				if (!shown) {
+					long onsetTime = presentSince[bit] + onsetDelayMillis;
+					shown = now >= onsetTime;
+					if (!shown) nextUpdateTime = Math.min(nextUpdateTime, onsetTime);
+				}
+			} else {
+				presentSince[bit] = NONE;
+				if (shown) {
+					if (absentSince[bit] == NONE) absentSince[bit] = now;
+					long releaseTime = absentSince[bit] + releaseDelayMillis;
+					shown = now < releaseTime;
+					if (shown) nextUpdateTime = Math.min(nextUpdateTime, releaseTime);
+				}
+			}
+			if (shown) result |= flag;
+		}
+
+		filteredMask = result;
+		return result;
+	}
+
+	/**
+	 * @return the time at which {@link #filter} may return a different mask for unchanged input, or {@link Long#MAX_VALUE}
+	 */
+	public long getNextUpdateTime() {
+		return nextUpdateTime;
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.util;
+
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fades out and moves up a header while the content below it is scrolled over the first {@code scrollRangePx} pixels.
+ * The header content overlaps (photo, color overlay, animation), so a fractional alpha on the header would have to be
+ * composed offscreen on every frame. A hardware layer on the whole header does not help either: a child that animates
+ * continuously invalidates the layer, which is then re-rendered on every frame of the animation. The alpha is therefore
+ * applied to the children of the header, and only the static ones are rendered into a hardware layer while the effect is
+ * in progress. Children that animate continuously are faded without a layer and should not have overlapping rendering.
+ */
+public class HeaderScrollEffect implements View.OnScrollChangeListener {
+
+	private final View header;
+	private final List<View> animatedChildren;
+	private final int scrollRangePx;
+	private final int translationRangePx;
+
+	private float progress = Float.NaN;
+
+	public static HeaderScrollEffect attach(@NonNull View scrollView, @NonNull View header, int scrollRangePx,
+			int translationRangePx, @NonNull View... animatedChildren) {
+		HeaderScrollEffect effect = new HeaderScrollEffect(header, scrollRangePx, translationRangePx, animatedChildren);
+		scrollView.setOnScrollChangeListener(effect);
+		scrollView.post(() -> effect.update(scrollView.getScrollY()));
+		return effect;
+	}
+
+	private HeaderScrollEffect(View header, int scrollRangePx, int translationRangePx, View[] animatedChildren) {
+		this.header = header;
+		this.scrollRangePx = scrollRangePx;
+		this.translationRangePx = translationRangePx;
+		this.animatedChildren = Arrays.asList(animatedChildren);
+	}
+
+	@Override
+	public void onScrollChange(View v, int scrollX, int scrollY, int oldScrollX, int oldScrollY) {
+		update(scrollY);
+	}
+
+	public void update(int scrollY) {
+		float newProgress = computeProgress(scrollY);
+		if (newProgress == progress) return;
+		progress = newProgress;
+
+		boolean inProgress = progress > 0 && progress < 1;
+		if (inProgress) PerformanceMetrics.count(PerformanceMetrics.Metric.HEADER_SCROLL_FRAME);
+		if (header instanceof ViewGroup) {
+			ViewGroup headerGroup = (ViewGroup) header;
+			for (int i = 0; i < headerGroup.getChildCount(); i++) {
+				View child = headerGroup.getChildAt(i);
+				fade(child, inProgress && !animatedChildren.contains(child));
+			}
+		} else {
+			fade(header, inProgress);
+		}
+		header.setTranslationY(progress * translationRangePx);
+	}
+
+	private void fade(View view, boolean useLayer) {
+		int layerType = useLayer ? View.LAYER_TYPE_HARDWARE : View.LAYER_TYPE_NONE;
+		if (view.getLayerType() != layerType) {
+			view.setLayerType(layerType, null);
+		}
+		view.setAlpha(1 - progress);
+	}
+
+	private float computeProgress(int scrollY) {
+		if (scrollRangePx <= 0) return scrollY > 0 ? 1 : 0;
+		return Math.max(0, Math.min(scrollY, scrollRangePx)) / (float) scrollRangePx;
+	}
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.util;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.dpppt.android.app.BuildConfig;
+
+/**
+ * Loads the large vector illustrations into image views as bitmaps. Each illustration is parsed and rasterized once per
+ * target size, density and night mode on a background thread, and the result is kept in a memory cache and as PNG in the
+ * cache directory. The disk cache lives in a directory named after the build, so an app update starts with an empty
+ * cache.
+ * <p>
+ * Views with a fixed or match_parent size receive a bitmap fitting their content area (the view is laid out first if
+ * needed), wrap_content views receive the illustration at its intrinsic size. A view keeps showing its current drawable
+ * until the new illustration has been loaded.
+ */
+public class IllustrationLoader {
+
+	private static final String TAG = "IllustrationLoader";
+	private static final String CACHE_DIR = "illustrations";
+
+	private static IllustrationLoader instance;
+
+	private final File cacheRoot;
+	private final File cacheDir;
+	private final LruCache<String, Bitmap> memoryCache;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+	private final Map<ImageView, Integer> requestedIllustrations = new WeakHashMap<>();
+
+	public static synchronized IllustrationLoader getInstance(Context context) {
+		if (instance == null) {
+			instance = new IllustrationLoader(context);
+		}
+		return instance;
+	}
+
+	private IllustrationLoader(Context context) {
+		cacheRoot = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR);
+		cacheDir = new File(cacheRoot, String.valueOf(BuildConfig.BUILD_TIME));
+		int maxSizeKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 16);
+		memoryCache = new LruCache<String, Bitmap>(maxSizeKb) {
+			@Override
+			protected int sizeOf(String key, Bitmap bitmap) {
+				return bitmap.getByteCount() / 1024;
+			}
+		};
+		executor.execute(this::deleteStaleCaches);
+	}
+
+	public void load(@NonNull ImageView view, @DrawableRes int illustrationRes) {
+		requestedIllustrations.put(view, illustrationRes);
+
+		ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+		boolean intrinsicSize = layoutParams == null ||
+				(layoutParams.width == ViewGroup.LayoutParams.WRAP_CONTENT &&
+						layoutParams.height == ViewGroup.LayoutParams.WRAP_CONTENT);
+		if (!intrinsicSize && (view.getWidth() == 0 || view.getHeight() == 0)) {
+			view.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
+				@Override
+				public void onLayoutChange(View v, int left, int top, int right, int bottom, int oldLeft, int oldTop,
+						int oldRight, int oldBottom) {
+					if (!isRequested(view, illustrationRes)) {
+						view.removeOnLayoutChangeListener(this);
+					} else if (view.getWidth() > 0 && view.getHeight() > 0) {
+						view.removeOnLayoutChangeListener(this);
+						load(view, illustrationRes);
+					}
+				}
+			});
+			return;
+		}
+
+		int width = intrinsicSize ? 0 : view.getWidth() - view.getPaddingLeft() - view.getPaddingRight();
+		int height = intrinsicSize ? 0 : view.getHeight() - view.getPaddingTop() - view.getPaddingBottom();
+		Context context = view.getContext();
+		String key = getCacheKey(context.getResources(), illustrationRes, width, height);
+
+		Bitmap cached = memoryCache.get(key);
+		if (cached != null) {
+			setBitmap(view, cached);
+			return;
+		}
+
+		// the previous drawable stays until the bitmap is ready, a wrap_content view would otherwise collapse to 0x0 and
+		// the layout around it would jump twice
+		executor.execute(() -> {
+			Bitmap bitmap = loadBitmap(context, illustrationRes, key, width, height);
+			mainHandler.post(() -> {
+				if (!isRequested(view, illustrationRes)) return;
+				if (bitmap != null) {
+					setBitmap(view, bitmap);
+				} else {
+					view.setImageResource(illustrationRes);
+				}
+			});
+		});
+	}
+
+	/**
+	 * Detaches the illustration from the view, e.g. when the view goes off-screen. The bitmap stays in the memory cache
+	 * as long as the cache has room for it.
+	 */
+	public void release(@NonNull ImageView view) {
+		requestedIllustrations.remove(view);
+		view.setImageDrawable(null);
+	}
+
+	/**
+	 * Rasterizes an illustration for a content area of the given size in the background, so a later {@link #load} of a
+	 * view with that size is served from the memory cache.
+	 */
+	public void prefetch(@NonNull Context context, @DrawableRes int illustrationRes, int width, int height) {
+		if (width <= 0 || height <= 0) return;
+		String key = getCacheKey(context.getResources(), illustrationRes, width, height);
+		if (memoryCache.get(key) != null) return;
+		executor.execute(() -> {
+			if (memoryCache.get(key) == null) {
+				loadBitmap(context, illustrationRes, key, width, height);
+			}
+		});
+	}
+
+	private boolean isRequested(ImageView view, @DrawableRes int illustrationRes) {
+		Integer requested = requestedIllustrations.get(view);
+		return requested != null && requested == illustrationRes;
+	}
+
+	private void setBitmap(ImageView view, Bitmap bitmap) {
+		requestedIllustrations.remove(view);
+		Drawable current = view.getDrawable();
+		if (current instanceof BitmapDrawable && ((BitmapDrawable) current).getBitmap() == bitmap) return;
+		view.setImageDrawable(new BitmapDrawable(view.getResources(), bitmap));
+	}
+
+	private String getCacheKey(Resources resources, @DrawableRes int illustrationRes, int width, int height) {
+		Configuration configuration = resources.getConfiguration();
+		boolean nightMode = (configuration.uiMode & Configuration.UI_MODE_NIGHT_MASK) == Configuration.UI_MODE_NIGHT_YES;
+		return resources.getResourceEntryName(illustrationRes) + "_" + width + "x" + height + "_" +
+				resources.getDisplayMetrics().densityDpi + (nightMode ? "_night" : "");
+	}
+
+	@Nullable
+	private Bitmap loadBitmap(Context context, @DrawableRes int illustrationRes, String key, int width, int height) {
+		File file = new File(cacheDir, key + ".png");
+		Bitmap bitmap = null;
+		if (file.exists()) {
+			bitmap = BitmapFactory.decodeFile(file.getAbsolutePath());
+		}
+		if (bitmap == null) {
+			try {
+				bitmap = rasterize(context, illustrationRes, width, height);
+			} catch (RuntimeException | OutOfMemoryError e) {
+				Log.e(TAG, "Could not rasterize " + key, e);
+				return null;
+			}
+			if (bitmap == null) return null;
+			writeToDisk(bitmap, file);
+		}
+		bitmap.setDensity(context.getResources().getDisplayMetrics().densityDpi);
+		memoryCache.put(key, bitmap);
+		return bitmap;
+	}
+
+	@Nullable
+	private Bitmap rasterize(Context context, @DrawableRes int illustrationRes, int width, int height) {
+		Drawable drawable = ContextCompat.getDrawable(context, illustrationRes);
+		if (drawable == null) return null;
+		int intrinsicWidth = drawable.getIntrinsicWidth();
+		int intrinsicHeight = drawable.getIntrinsicHeight();
+		if (intrinsicWidth <= 0 || intrinsicHeight <= 0) return null;
+
+		int bitmapWidth = intrinsicWidth;
+		int bitmapHeight = intrinsicHeight;
+		if (width > 0 && height > 0) {
+			float scale = Math.min(width / (float) intrinsicWidth, height / (float) intrinsicHeight);
+			bitmapWidth = Math.max(1, Math.round(intrinsicWidth * scale));
+			bitmapHeight = Math.max(1, Math.round(intrinsicHeight * scale));
+		}
+
+		Bitmap bitmap = Bitmap.createBitmap(bitmapWidth, bitmapHeight, Bitmap.Config.ARGB_8888);
+		drawable.setBounds(0, 0, bitmapWidth, bitmapHeight);
+		drawable.draw(new Canvas(bitmap));
+		return bitmap;
+	}
+
+	private void writeToDisk(Bitmap bitmap, File file) {
+		if (!cacheDir.exists() && !cacheDir.mkdirs()) return;
+		File tmpFile = new File(cacheDir, file.getName() + ".tmp");
+		try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+			bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+		} catch (IOException e) {
+			Log.e(TAG, "Could not cache " + file.getName(), e);
+			tmpFile.delete();
+			return;
+		}
+		if (!tmpFile.renameTo(file)) {
+			tmpFile.delete();
+		}
+	}
+
+	private void deleteStaleCaches() {
+		File[] buildDirs = cacheRoot.listFiles();
+		if (buildDirs == null) return;
+		for (File buildDir : buildDirs) {
+			if (buildDir.equals(cacheDir)) continue;
+			File[] files = buildDir.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			buildDir.delete();
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.util;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.lifecycle.LiveData;
+
+/**
+ * Whether the contact notification channel is able to show notifications. The NotificationManager is queried whenever
+ * the LiveData becomes active (i.e. when a screen observing it comes to the foreground) and when the system broadcasts a
+ * change of the app or channel block state, so observers can read the cached value without any IPC.
+ */
+public class NotificationPermissionLiveData extends LiveData<Boolean> {
+
+	private final Context context;
+
+	private final BroadcastReceiver blockStateReceiver = new BroadcastReceiver() {
+		@Override
+		public void onReceive(Context context, Intent intent) {
+			refresh();
+		}
+	};
+
+	public NotificationPermissionLiveData(@NonNull Context context) {
+		super(true);
+		this.context = context.getApplicationContext();
+	}
+
+	@Override
+	protected void onActive() {
+		refresh();
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+			IntentFilter filter = new IntentFilter();
+			filter.addAction(NotificationManager.ACTION_APP_BLOCK_STATE_CHANGED);
+			filter.addAction(NotificationManager.ACTION_NOTIFICATION_CHANNEL_BLOCK_STATE_CHANGED);
+			context.registerReceiver(blockStateReceiver, filter);
+		}
+	}
+
+	@Override
+	protected void onInactive() {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+			context.unregisterReceiver(blockStateReceiver);
+		}
+	}
+
+	public void refresh() {
+		boolean enabled = isNotificationChannelEnabled(NotificationUtil.NOTIFICATION_CHANNEL_ID);
+		if (getValue() == null || getValue() != enabled) {
+			setValue(enabled);
+		}
+	}
+
+	private boolean isNotificationChannelEnabled(@NonNull String channelId) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+			NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+			NotificationChannel channel = manager.getNotificationChannel(channelId);
+			if (channel == null) {
+				return true;
+			}
+			return channel.getImportance() != NotificationManager.IMPORTANCE_NONE && manager.areNotificationsEnabled();
+		} else {
+			return NotificationManagerCompat.from(context).areNotificationsEnabled();
+		}
+	}
+
+}
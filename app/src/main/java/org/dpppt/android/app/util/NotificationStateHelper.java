@@ -11,6 +11,10 @@ package org.dpppt.android.app.util;
 
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.graphics.Typeface;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.StyleSpan;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -21,6 +25,9 @@ import org.dpppt.android.app.main.model.NotificationState;
 
 public class NotificationStateHelper {
 
+	// only used on the main thread, TextView copies the text so the builder can be reused for the next bind
+	private static final SpannableStringBuilder infoSinceBuilder = new SpannableStringBuilder();
+
 	public static void updateStatusView(View statusView, NotificationState state, long daySinceExposed) {
 		Context context = statusView.getContext();
 		if (NotificationState.getBackgroundColor(state) != -1) {
@@ -57,7 +64,7 @@ public class NotificationStateHelper {
 			iconView.setVisibility(View.GONE);
 		}
 		if (NotificationState.getIllu(state) != -1) {
-			illustrationView.setImageResource(NotificationState.getIllu(state));
+			IllustrationLoader.getInstance(context).load(illustrationView, NotificationState.getIllu(state));
 			illustrationView.setVisibility(View.VISIBLE);
 		} else {
 			illustrationView.setVisibility(View.GONE);
@@ -84,14 +91,13 @@ public class NotificationStateHelper {
 				String string = context.getString(R.string.date_one_day_ago);
 				infoSince.setText(StringUtil.makePartiallyBold(string, string.indexOf(' ') + 1, string.length()));
 			} else if (daySinceExposed > 1) {
-				String string = context.getString(R.string.date_days_ago);
-				int start = string.indexOf("{COUNT}");
-				if (start >= 0) {
-					String finalString = string.replace("{COUNT}", String.valueOf(daySinceExposed));
-					infoSince.setText(StringUtil.makePartiallyBold(finalString, start, finalString.length()));
-				} else {
-					infoSince.setText(string);
+				StringTemplate template = StringTemplate.get(context, R.string.date_days_ago);
+				template.appendTo(StringTemplate.reset(infoSinceBuilder), daySinceExposed);
+				if (template.hasPlaceholder()) {
+					infoSinceBuilder.setSpan(new StyleSpan(Typeface.BOLD), template.getPlaceholderOffset(),
+							infoSinceBuilder.length(), Spanned.SPAN_INCLUSIVE_EXCLUSIVE);
 				}
+				infoSince.setText(infoSinceBuilder);
 			} else {
 				infoSince.setVisibility(View.GONE);
 			}
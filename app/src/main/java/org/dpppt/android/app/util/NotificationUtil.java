@@ -25,14 +25,18 @@ public class NotificationUtil {
 	public static final int NOTIFICATION_ID_CONTACT = 42;
 	public static final int NOTIFICATION_ID_UPDATE = 43;
 
+	private static volatile boolean notificationChannelCreated = false;
+
 	@RequiresApi(api = Build.VERSION_CODES.O)
 	public static void createNotificationChannel(Context context) {
+		if (notificationChannelCreated) return;
 		NotificationManager notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
 		String channelName = context.getString(R.string.app_name);
 		NotificationChannel channel =
 				new NotificationChannel(NOTIFICATION_CHANNEL_ID, channelName, NotificationManager.IMPORTANCE_HIGH);
 		channel.setLockscreenVisibility(Notification.VISIBILITY_PRIVATE);
 		notificationManager.createNotificationChannel(channel);
+		notificationChannelCreated = true;
 	}
 
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dpppt.android.app.BuildConfig;
+
+/**
+ * In-process registry of timings and event rates shown by the debug performance HUD. {@link #ENABLED} is a compile time
+ * constant, so in release builds every call compiles to an empty method and nothing is measured.
+ */
+public class PerformanceMetrics {
+
+	public static final boolean ENABLED = BuildConfig.DEBUG;
+
+	private static final int RATE_WINDOW_SIZE = 256;
+
+	public enum Metric {
+		FRAME(TimeUnit.MILLISECONDS.toNanos(17)),
+		STATUS_QUERY(0),
+		SYNC(0),
+		SECURE_STORAGE_INIT(0),
+		SECURE_STORAGE_READ(0),
+		STATUS_EMISSION(0),
+		HEADER_ANIMATION_FRAME(0),
+		HEADER_SCROLL_FRAME(0),
+		HOME_ENTRY(0);
+
+		private final long slowThresholdNanos;
+
+		Metric(long slowThresholdNanos) {
+			this.slowThresholdNanos = slowThresholdNanos;
+		}
+	}
+
+	private static final Recorder[] recorders = new Recorder[Metric.values().length];
+
+	static {
+		for (Metric metric : Metric.values()) {
+			recorders[metric.ordinal()] = new Recorder(metric.slowThresholdNanos);
+		}
+	}
+
+	public static long startTimer() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+
+	public static void stopTimer(Metric metric, long startNanos) {
+		if (!ENABLED) return;
+		recorders[metric.ordinal()].record(System.nanoTime(), System.nanoTime() - startNanos);
+	}
+
+	public static void recordDuration(Metric metric, long durationNanos) {
+		if (!ENABLED) return;
+		recorders[metric.ordinal()].record(System.nanoTime(), durationNanos);
+	}
+
+	public static void count(Metric metric) {
+		if (!ENABLED) return;
+		recorders[metric.ordinal()].record(System.nanoTime(), 0);
+	}
+
+	public static Snapshot getSnapshot(Metric metric, long rateWindowMillis) {
+		return recorders[metric.ordinal()].getSnapshot(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(rateWindowMillis));
+	}
+
+	private static class Recorder {
+
+		private final long slowThresholdNanos;
+		private final long[] eventTimesNanos = new long[RATE_WINDOW_SIZE];
+		private long count;
+		private long sumNanos;
+		private long maxNanos;
+		private long lastNanos;
+		private long slowCount;
+
+		private Recorder(long slowThresholdNanos) {
+			this.slowThresholdNanos = slowThresholdNanos;
+		}
+
+		private synchronized void record(long timeNanos, long durationNanos) {
+			eventTimesNanos[(int) (count % RATE_WINDOW_SIZE)] = timeNanos;
+			count++;
+			sumNanos += durationNanos;
+			maxNanos = Math.max(maxNanos, durationNanos);
+			lastNanos = durationNanos;
+			if (slowThresholdNanos > 0 && durationNanos > slowThresholdNanos) slowCount++;
+		}
+
+		private synchronized Snapshot getSnapshot(long nowNanos, long rateWindowNanos) {
+			int eventsInWindow = 0;
+			long oldestInWindow = nowNanos;
+			int recorded = (int) Math.min(count, RATE_WINDOW_SIZE);
+			for (int i = 0; i < recorded; i++) {
+				long eventTime = eventTimesNanos[i];
+				if (nowNanos - eventTime <= rateWindowNanos) {
+					eventsInWindow++;
+					oldestInWindow = Math.min(oldestInWindow, eventTime);
+				}
+			}
+			float ratePerWindow;
+			if (eventsInWindow == RATE_WINDOW_SIZE && nowNanos > oldestInWindow) {
+				// the window holds more events than are kept, extrapolate from the ones that are
+				ratePerWindow = eventsInWindow * (float) rateWindowNanos / (nowNanos - oldestInWindow);
+			} else {
+				ratePerWindow = eventsInWindow;
+			}
+			return new Snapshot(count, count > 0 ? sumNanos / count : 0, maxNanos, lastNanos, slowCount, ratePerWindow);
+		}
+
+	}
+
+	public static class Snapshot {
+
+		private final long count;
+		private final long averageNanos;
+		private final long maxNanos;
+		private final long lastNanos;
+		private final long slowCount;
+		private final float ratePerWindow;
+
+		private Snapshot(long count, long averageNanos, long maxNanos, long lastNanos, long slowCount, float ratePerWindow) {
+			this.count = count;
+			this.averageNanos = averageNanos;
+			this.maxNanos = maxNanos;
+			this.lastNanos = lastNanos;
+			this.slowCount = slowCount;
+			this.ratePerWindow = ratePerWindow;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public float getAverageMillis() {
+			return averageNanos / 1e6f;
+		}
+
+		public float getMaxMillis() {
+			return maxNanos / 1e6f;
+		}
+
+		public float getLastMillis() {
+			return lastNanos / 1e6f;
+		}
+
+		public long getSlowCount() {
+			return slowCount;
+		}
+
+		/**
+		 * @return the number of events within the rate window passed to {@link #getSnapshot}
+		 */
+		public float getRatePerWindow() {
+			return ratePerWindow;
+		}
+
+	}
+
+}
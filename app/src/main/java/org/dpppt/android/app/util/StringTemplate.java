@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.util;
+
+import android.content.Context;
+import android.text.SpannableStringBuilder;
+import android.util.SparseArray;
+import androidx.annotation.NonNull;
+import androidx.annotation.StringRes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A localized string with placeholders like {@code {COUNT}} or {@code {DATE}}, parsed once into literal segments so it
+ * can be appended to a reused {@link SpannableStringBuilder} without building intermediate strings. Parsed templates are
+ * cached per string resource until {@link #invalidateCache()} is called on a locale change. A reused builder has to be
+ * emptied with {@link #reset(SpannableStringBuilder)}, not just {@code clear()}.
+ */
+public class StringTemplate {
+
+	private static final String[] DIGITS = new String[] { "0", "1", "2", "3", "4", "5", "6", "7", "8", "9" };
+
+	// guarded by itself, so templates can also be looked up off the main thread
+	private static final SparseArray<StringTemplate> templateCache = new SparseArray<>();
+
+	// literals[i] is followed by a placeholder, the last literal ends the template
+	private final String[] literals;
+
+	public static StringTemplate get(@NonNull Context context, @StringRes int stringRes) {
+		synchronized (templateCache) {
+			StringTemplate template = templateCache.get(stringRes);
+			if (template == null) {
+				template = parse(context.getString(stringRes));
+				templateCache.put(stringRes, template);
+			}
+			return template;
+		}
+	}
+
+	public static void invalidateCache() {
+		synchronized (templateCache) {
+			templateCache.clear();
+		}
+	}
+
+	/**
+	 * Empties a reused builder. {@link SpannableStringBuilder#clear()} only removes the text, spans that are not
+	 * exclusive at both ends stay attached as empty spans and pile up with every reuse.
+	 */
+	public static SpannableStringBuilder reset(@NonNull SpannableStringBuilder builder) {
+		builder.clearSpans();
+		builder.clear();
+		return builder;
+	}
+
+	static StringTemplate parse(@NonNull String string) {
+		List<String> literals = new ArrayList<>();
+		int literalStart = 0;
+		int placeholderStart = string.indexOf('{');
+		while (placeholderStart >= 0) {
+			int placeholderEnd = string.indexOf('}', placeholderStart);
+			if (placeholderEnd < 0) break;
+			literals.add(string.substring(literalStart, placeholderStart));
+			literalStart = placeholderEnd + 1;
+			placeholderStart = string.indexOf('{', literalStart);
+		}
+		literals.add(string.substring(literalStart));
+		return new StringTemplate(literals.toArray(new String[0]));
+	}
+
+	private StringTemplate(String[] literals) {
+		this.literals = literals;
+	}
+
+	public boolean hasPlaceholder() {
+		return literals.length > 1;
+	}
+
+	/**
+	 * @return the offset of the first placeholder from the start of the appended template, or the length of the template
+	 * if it has no placeholder
+	 */
+	public int getPlaceholderOffset() {
+		return literals[0].length();
+	}
+
+	public SpannableStringBuilder appendTo(@NonNull SpannableStringBuilder out, @NonNull CharSequence value) {
+		for (int i = 0; i < literals.length; i++) {
+			if (i > 0) out.append(value);
+			out.append(literals[i]);
+		}
+		return out;
+	}
+
+	public SpannableStringBuilder appendTo(@NonNull SpannableStringBuilder out, long value) {
+		for (int i = 0; i < literals.length; i++) {
+			if (i > 0) appendNumber(out, value);
+			out.append(literals[i]);
+		}
+		return out;
+	}
+
+	private static void appendNumber(SpannableStringBuilder out, long value) {
+		if (value < 0) {
+			out.append('-');
+			value = -value;
+		}
+		int start = out.length();
+		do {
+			out.insert(start, DIGITS[(int) (value % 10)]);
+			value /= 10;
+		} while (value > 0);
+	}
+
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sync errors other than database errors are only reported once the last successful sync is {@link #DELAY_MILLIS} ago,
+ * a single failed sync is caught up by the next one.
+ */
+public class SyncErrorDelay {
+
+	public static final long DELAY_MILLIS = TimeUnit.DAYS.toMillis(2);
+
+	public static boolean isOver(long lastSyncDate, long now) {
+		return now - lastSyncDate >= DELAY_MILLIS;
+	}
+
+	public static long getEndTime(long lastSyncDate) {
+		return lastSyncDate + DELAY_MILLIS;
+	}
+
+}
@@ -20,7 +20,6 @@ import androidx.annotation.StringRes;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 
 import org.dpppt.android.sdk.TracingStatus;
 
@@ -28,7 +27,10 @@ import org.dpppt.android.app.R;
 
 public class TracingErrorStateHelper {
 
-	private static final List<TracingStatus.ErrorState> possibleErrorStatesOrderedByPriority = Arrays.asList(
+	/**
+	 * Errors that stop the tracing itself, ordered by priority.
+	 */
+	private static final TracingStatus.ErrorState[] TRACING_ERRORS = {
 			TracingStatus.ErrorState.BLE_NOT_SUPPORTED,
 			TracingStatus.ErrorState.MISSING_LOCATION_PERMISSION,
 			TracingStatus.ErrorState.BLE_DISABLED,
@@ -37,17 +39,47 @@ public class TracingErrorStateHelper {
 			TracingStatus.ErrorState.SYNC_ERROR_TIMING,
 			TracingStatus.ErrorState.BLE_INTERNAL_ERROR,
 			TracingStatus.ErrorState.BLE_ADVERTISING_ERROR,
-			TracingStatus.ErrorState.BLE_SCANNER_ERROR);
+			TracingStatus.ErrorState.BLE_SCANNER_ERROR };
 
-	private static final List<TracingStatus.ErrorState> possibleNotificationErrorStatesOrderedByPriority = Arrays.asList(
+	/**
+	 * Errors that keep the reports from being updated, ordered by priority.
+	 */
+	private static final TracingStatus.ErrorState[] REPORT_ERRORS = {
 			TracingStatus.ErrorState.SYNC_ERROR_DATABASE,
 			TracingStatus.ErrorState.SYNC_ERROR_SERVER,
 			TracingStatus.ErrorState.SYNC_ERROR_NETWORK,
-			TracingStatus.ErrorState.SYNC_ERROR_SIGNATURE
-	);
+			TracingStatus.ErrorState.SYNC_ERROR_SIGNATURE };
+
+	private static final EnumPriorityMask<TracingStatus.ErrorState> errorStatePriorities =
+			new EnumPriorityMask<>(TracingStatus.ErrorState.class, concat(TRACING_ERRORS, REPORT_ERRORS));
+
+	public static final long TRACING_ERROR_MASK = errorStatePriorities.getRangeMask(0, TRACING_ERRORS.length);
+	public static final long REPORTS_ERROR_MASK =
+			errorStatePriorities.getRangeMask(TRACING_ERRORS.length, TRACING_ERRORS.length + REPORT_ERRORS.length);
+
+	private static TracingStatus.ErrorState[] concat(TracingStatus.ErrorState[] first, TracingStatus.ErrorState[] second) {
+		TracingStatus.ErrorState[] all = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, all, first.length, second.length);
+		return all;
+	}
+
+	public static long toMask(TracingStatus.ErrorState errorState) {
+		return errorStatePriorities.toMask(errorState);
+	}
+
+	public static long toMask(Collection<TracingStatus.ErrorState> errors) {
+		return errorStatePriorities.toMask(errors);
+	}
+
+	/**
+	 * @return the error state of the given mask with the highest priority, or null if the mask is empty
+	 */
+	public static TracingStatus.ErrorState getHighestPriorityErrorState(long mask) {
+		return errorStatePriorities.getHighestPriority(mask);
+	}
 
 	@StringRes
-	private static int getTitle(TracingStatus.ErrorState tracingErrorState) {
+	public static int getTitle(TracingStatus.ErrorState tracingErrorState) {
 		switch (tracingErrorState) {
 			case LOCATION_SERVICE_DISABLED:
 				return R.string.error_location_services_title;
@@ -79,7 +111,7 @@ public class TracingErrorStateHelper {
 	}
 
 	@DrawableRes
-	private static int getIcon(TracingStatus.ErrorState tracingErrorState) {
+	public static int getIcon(TracingStatus.ErrorState tracingErrorState) {
 		switch (tracingErrorState) {
 			case LOCATION_SERVICE_DISABLED:
 				return R.drawable.ic_gps_off;
@@ -130,29 +162,27 @@ public class TracingErrorStateHelper {
 	}
 
 	public static TracingStatus.ErrorState getErrorState(Collection<TracingStatus.ErrorState> errors) {
-		for (TracingStatus.ErrorState errorState : possibleErrorStatesOrderedByPriority) {
-			if (errors.contains(errorState)) {
-				return errorState;
-			}
-		}
-		return null;
+		return getErrorState(toMask(errors));
+	}
+
+	public static TracingStatus.ErrorState getErrorState(long errorMask) {
+		return getHighestPriorityErrorState(errorMask & TRACING_ERROR_MASK);
 	}
 
 	public static TracingStatus.ErrorState getErrorStateForReports(Collection<TracingStatus.ErrorState> errors) {
-		for (TracingStatus.ErrorState errorState : possibleNotificationErrorStatesOrderedByPriority) {
-			if (errors.contains(errorState)) {
-				return errorState;
-			}
-		}
-		return null;
+		return getErrorStateForReports(toMask(errors));
+	}
+
+	public static TracingStatus.ErrorState getErrorStateForReports(long errorMask) {
+		return getHighestPriorityErrorState(errorMask & REPORTS_ERROR_MASK);
 	}
 
 	public static boolean isTracingErrorState(TracingStatus.ErrorState error) {
-		return possibleErrorStatesOrderedByPriority.contains(error);
+		return (toMask(error) & TRACING_ERROR_MASK) != 0;
 	}
 
 	public static boolean isReportsErrorState(TracingStatus.ErrorState error) {
-		return possibleNotificationErrorStatesOrderedByPriority.contains(error);
+		return (toMask(error) & REPORTS_ERROR_MASK) != 0;
 	}
 
 	public static void updateErrorView(View tracingErrorView, TracingStatus.ErrorState errorState) {
@@ -60,7 +60,7 @@ public class TracingStatusHelper {
 		}
 		iconView.setImageTintList(ColorStateList.valueOf(color));
 		if (displayIllu && TracingState.getIllu(state) != -1) {
-			illustrationView.setImageResource(TracingState.getIllu(state));
+			IllustrationLoader.getInstance(context).load(illustrationView, TracingState.getIllu(state));
 			illustrationView.setVisibility(View.VISIBLE);
 		} else {
 			illustrationView.setVisibility(View.GONE);
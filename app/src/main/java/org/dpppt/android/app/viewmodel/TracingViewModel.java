@@ -10,23 +10,30 @@
 package org.dpppt.android.app.viewmodel;
 
 import android.app.Application;
-import android.bluetooth.BluetoothAdapter;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Pair;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 
 import java.util.Collection;
 import java.util.Collections;
 
 import org.dpppt.android.app.debug.TracingStatusWrapper;
 import org.dpppt.android.app.main.model.TracingStatusInterface;
-import org.dpppt.android.app.util.DeviceFeatureHelper;
+import org.dpppt.android.app.storage.ContactHistory;
+import org.dpppt.android.app.storage.StatusSnapshot;
+import org.dpppt.android.app.util.DeviceCapabilities;
+import org.dpppt.android.app.util.DeviceCapabilityMonitor;
+import org.dpppt.android.app.util.NotificationPermissionLiveData;
+import org.dpppt.android.app.util.PerformanceMetrics;
 import org.dpppt.android.sdk.DP3T;
 import org.dpppt.android.sdk.TracingStatus;
 
@@ -48,51 +55,108 @@ public class TracingViewModel extends AndroidViewModel {
 	private final MutableLiveData<TracingStatusInterface> appStatusLiveData = new MutableLiveData<>();
 
 	private TracingStatusInterface tracingStatusInterface = new TracingStatusWrapper();
+	private TracingStatus statusOverride = null;
+
+	private final Handler handler = new Handler(Looper.getMainLooper());
+	private final Runnable errorStateUpdateRunnable = this::invalidateTracingStatus;
+
+	private final NotificationPermissionLiveData notificationPermissionLiveData;
 
 	private final MutableLiveData<Boolean> bluetoothEnabledLiveData = new MutableLiveData<>();
-	private BroadcastReceiver bluetoothReceiver = new BroadcastReceiver() {
-		@Override
-		public void onReceive(Context context, Intent intent) {
-			if (BluetoothAdapter.ACTION_STATE_CHANGED.equals(intent.getAction())) {
-				invalidateBluetoothState();
-				invalidateTracingStatus();
-			}
+	private Boolean bluetoothEnabledOverride = null;
+	private final Observer<DeviceCapabilities> deviceCapabilitiesObserver = capabilities -> {
+		if (bluetoothEnabledOverride == null) {
+			publishBluetoothEnabled(capabilities.isBluetoothEnabled());
+		}
+	};
+
+	private final Observer<TracingStatus> tracingStatusObserver = status -> {
+		PerformanceMetrics.count(PerformanceMetrics.Metric.STATUS_EMISSION);
+		errorsLiveData.setValue(status.getErrors());
+		tracingEnabledLiveData.setValue(status.isAdvertising() && status.isReceiving());
+		numberOfHandshakesLiveData.setValue(status.getNumberOfContacts());
+		tracingStatusInterface.setStatus(status);
+
+		exposedLiveData
+				.setValue(new Pair<>(tracingStatusInterface.isReportedAsInfected(),
+						tracingStatusInterface.wasContactReportedAsExposed()));
+
+		appStatusLiveData.setValue(tracingStatusInterface);
+		if (statusOverride == null) {
+			StatusSnapshot.getInstance(getApplication()).update(status);
+		}
+
+		handler.removeCallbacks(errorStateUpdateRunnable);
+		long nextErrorStateUpdateTime = tracingStatusInterface.getNextErrorStateUpdateTime();
+		if (nextErrorStateUpdateTime != Long.MAX_VALUE) {
+			handler.postDelayed(errorStateUpdateRunnable,
+					Math.max(0, nextErrorStateUpdateTime - System.currentTimeMillis()));
 		}
 	};
 
 	public TracingViewModel(@NonNull Application application) {
 		super(application);
 
-		tracingStatusLiveData.observeForever(status -> {
-			errorsLiveData.setValue(status.getErrors());
-			tracingEnabledLiveData.setValue(status.isAdvertising() && status.isReceiving());
-			numberOfHandshakesLiveData.setValue(status.getNumberOfContacts());
-			tracingStatusInterface.setStatus(status);
+		notificationPermissionLiveData = new NotificationPermissionLiveData(application);
 
-			exposedLiveData
-					.setValue(new Pair<>(tracingStatusInterface.isReportedAsInfected(),
-							tracingStatusInterface.wasContactReportedAsExposed()));
+		tracingStatusLiveData.observeForever(tracingStatusObserver);
 
-			appStatusLiveData.setValue(tracingStatusInterface);
-		});
-
-		invalidateBluetoothState();
+		DeviceCapabilityMonitor.getInstance(application).getCapabilitiesLiveData()
+				.observeForever(deviceCapabilitiesObserver);
 		invalidateTracingStatus();
 
 		application.registerReceiver(tracingStatusBroadcastReceiver, DP3T.getUpdateIntentFilter());
-		application.registerReceiver(bluetoothReceiver, new IntentFilter(BluetoothAdapter.ACTION_STATE_CHANGED));
 	}
 
 	public void resetSdk(Runnable onDeleteListener) {
 		if (tracingEnabledLiveData.getValue()) DP3T.stop(getApplication());
 		DP3T.clearData(getApplication(), onDeleteListener);
+		ContactHistory.getInstance(getApplication()).clear();
 	}
 
 	public void invalidateTracingStatus() {
-		TracingStatus status = DP3T.getStatus(getApplication());
+		TracingStatus status = statusOverride;
+		if (status == null) {
+			long start = PerformanceMetrics.startTimer();
+			status = DP3T.getStatus(getApplication());
+			PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.STATUS_QUERY, start);
+		}
 		tracingStatusLiveData.setValue(status);
 	}
 
+	/**
+	 * Publishes the given status in place of the SDK status until the override is reset to null. Only used by the debug
+	 * tools.
+	 */
+	public void setStatusOverride(@Nullable TracingStatus statusOverride) {
+		this.statusOverride = statusOverride;
+		invalidateTracingStatus();
+	}
+
+	/**
+	 * Publishes the given Bluetooth state in place of the device state until the override is reset to null. Only used by
+	 * the debug tools.
+	 */
+	public void setBluetoothEnabledOverride(@Nullable Boolean bluetoothEnabledOverride) {
+		this.bluetoothEnabledOverride = bluetoothEnabledOverride;
+		if (bluetoothEnabledOverride != null) {
+			publishBluetoothEnabled(bluetoothEnabledOverride);
+		} else {
+			DeviceCapabilities capabilities = DeviceCapabilityMonitor.getInstance(getApplication()).getCapabilities();
+			if (capabilities != null) publishBluetoothEnabled(capabilities.isBluetoothEnabled());
+		}
+	}
+
+	private void publishBluetoothEnabled(boolean bluetoothEnabled) {
+		Boolean previousBluetoothEnabled = bluetoothEnabledLiveData.getValue();
+		if (previousBluetoothEnabled == null || previousBluetoothEnabled != bluetoothEnabled) {
+			bluetoothEnabledLiveData.setValue(bluetoothEnabled);
+			if (previousBluetoothEnabled != null) {
+				invalidateTracingStatus();
+			}
+		}
+	}
+
 	public LiveData<Boolean> getTracingEnabledLiveData() {
 		return tracingEnabledLiveData;
 	}
@@ -113,10 +177,21 @@ public class TracingViewModel extends AndroidViewModel {
 		return tracingStatusLiveData;
 	}
 
+	/**
+	 * @return the number of new contacts per day over the retention window, oldest first
+	 */
+	public LiveData<int[]> getContactHistoryLiveData() {
+		return ContactHistory.getInstance(getApplication()).getDailyCountsLiveData();
+	}
+
 	public LiveData<Boolean> getBluetoothEnabledLiveData() {
 		return bluetoothEnabledLiveData;
 	}
 
+	public LiveData<Boolean> getNotificationPermissionLiveData() {
+		return notificationPermissionLiveData;
+	}
+
 	public void setTracingEnabled(boolean enabled) {
 		if (enabled) {
 			DP3T.start(getApplication());
@@ -133,7 +208,9 @@ public class TracingViewModel extends AndroidViewModel {
 		new Thread() {
 			@Override
 			public void run() {
+				long start = PerformanceMetrics.startTimer();
 				DP3T.sync(getApplication());
+				PerformanceMetrics.stopTimer(PerformanceMetrics.Metric.SYNC, start);
 			}
 		}.start();
 	}
@@ -144,14 +221,13 @@ public class TracingViewModel extends AndroidViewModel {
 		}
 	}
 
-	private void invalidateBluetoothState() {
-		bluetoothEnabledLiveData.setValue(DeviceFeatureHelper.isBluetoothEnabled());
-	}
-
 	@Override
 	protected void onCleared() {
+		tracingStatusLiveData.removeObserver(tracingStatusObserver);
+		handler.removeCallbacks(errorStateUpdateRunnable);
 		getApplication().unregisterReceiver(tracingStatusBroadcastReceiver);
-		getApplication().unregisterReceiver(bluetoothReceiver);
+		DeviceCapabilityMonitor.getInstance(getApplication()).getCapabilitiesLiveData()
+				.removeObserver(deviceCapabilitiesObserver);
 	}
 
 }
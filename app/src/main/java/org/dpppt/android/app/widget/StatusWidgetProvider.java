@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.dpppt.android.app.widget;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.appwidget.AppWidgetManager;
+import android.appwidget.AppWidgetProvider;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.widget.RemoteViews;
+import androidx.annotation.ColorRes;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.StringRes;
+import androidx.core.content.ContextCompat;
+
+import org.dpppt.android.app.MainActivity;
+import org.dpppt.android.app.R;
+import org.dpppt.android.app.main.model.NotificationState;
+import org.dpppt.android.app.main.model.TracingState;
+import org.dpppt.android.app.storage.StatusSnapshot;
+import org.dpppt.android.app.util.TracingErrorStateHelper;
+import org.dpppt.android.sdk.TracingStatus;
+
+/**
+ * Home screen widget with the tracing and notification summary. It is rendered from the {@link StatusSnapshot} only and
+ * has no update period, the snapshot pushes a new rendering whenever one of its states changes. Error states that change
+ * with time alone are refreshed by an alarm at the time the snapshot schedules.
+ */
+public class StatusWidgetProvider extends AppWidgetProvider {
+
+	private static final String ACTION_REFRESH = "org.dpppt.android.app.widget.ACTION_REFRESH";
+
+	public static void updateAll(Context context) {
+		AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
+		if (appWidgetManager == null) return;
+		int[] appWidgetIds = appWidgetManager.getAppWidgetIds(new ComponentName(context, StatusWidgetProvider.class));
+		if (appWidgetIds.length > 0) {
+			appWidgetManager.updateAppWidget(appWidgetIds, createRemoteViews(context));
+		}
+	}
+
+	public static boolean hasWidgets(Context context) {
+		AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
+		return appWidgetManager != null &&
+				appWidgetManager.getAppWidgetIds(new ComponentName(context, StatusWidgetProvider.class)).length > 0;
+	}
+
+	/**
+	 * Refreshes the snapshot, and with it the widgets, at the given time. Replaces the previously scheduled refresh, a
+	 * time of {@link Long#MAX_VALUE} only cancels it.
+	 */
+	public static void scheduleRefresh(Context context, long time) {
+		AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+		if (alarmManager == null) return;
+		PendingIntent refreshIntent = createRefreshIntent(context);
+		if (time == Long.MAX_VALUE) {
+			alarmManager.cancel(refreshIntent);
+		} else {
+			// no wakeup, a widget is only seen once the device is awake anyway
+			alarmManager.set(AlarmManager.RTC, time, refreshIntent);
+		}
+	}
+
+	@Override
+	public void onReceive(Context context, Intent intent) {
+		if (ACTION_REFRESH.equals(intent.getAction())) {
+			// only the time has changed, the snapshot pushes the new rendering if that changed any state
+			StatusSnapshot.getInstance(context).refresh();
+		} else {
+			super.onReceive(context, intent);
+		}
+	}
+
+	@Override
+	public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
+		appWidgetManager.updateAppWidget(appWidgetIds, createRemoteViews(context));
+	}
+
+	@Override
+	public void onEnabled(Context context) {
+		// no refresh was scheduled while there were no widgets
+		StatusSnapshot.getInstance(context).refresh();
+	}
+
+	@Override
+	public void onDisabled(Context context) {
+		StatusSnapshot.getInstance(context).cancelRefresh();
+	}
+
+	private static RemoteViews createRemoteViews(Context context) {
+		StatusSnapshot snapshot = StatusSnapshot.getInstance(context);
+		TracingState tracingState = snapshot.getTracingState();
+		NotificationState notificationState = snapshot.getNotificationState();
+		TracingStatus.ErrorState tracingErrorState = snapshot.getTracingErrorState();
+		TracingStatus.ErrorState reportErrorState = snapshot.getReportErrorState();
+
+		RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.widget_status);
+
+		// errors are shown the way the home screen does, tracing errors only while tracing is on and report errors only
+		// as long as there is nothing to report
+		if (tracingState == TracingState.ACTIVE && tracingErrorState != null) {
+			setRow(context, views, R.id.widget_tracing_icon, R.id.widget_tracing_title,
+					TracingErrorStateHelper.getIcon(tracingErrorState), R.color.red_main,
+					TracingErrorStateHelper.getTitle(tracingErrorState));
+		} else {
+			setRow(context, views, R.id.widget_tracing_icon, R.id.widget_tracing_title,
+					TracingState.getIcon(tracingState), TracingState.getTextColor(tracingState),
+					TracingState.getTitle(tracingState));
+		}
+
+		if (notificationState == NotificationState.NO_REPORTS && reportErrorState != null) {
+			setRow(context, views, R.id.widget_notification_icon, R.id.widget_notification_title,
+					TracingErrorStateHelper.getIcon(reportErrorState), R.color.red_main,
+					TracingErrorStateHelper.getTitle(reportErrorState));
+		} else {
+			// the notification title colors are meant for the colored report cards, use the card color on the white widget
+			@ColorRes int notificationColor = notificationState == NotificationState.NO_REPORTS
+											  ? NotificationState.getTitleTextColor(notificationState)
+											  : NotificationState.getBackgroundColor(notificationState);
+			setRow(context, views, R.id.widget_notification_icon, R.id.widget_notification_title,
+					NotificationState.getIcon(notificationState), notificationColor,
+					NotificationState.getTitle(notificationState));
+		}
+
+		views.setOnClickPendingIntent(R.id.widget_tracing, createMainIntent(context, null));
+		views.setOnClickPendingIntent(R.id.widget_notification,
+				createMainIntent(context, notificationState == NotificationState.NO_REPORTS ? null
+																							 : MainActivity.ACTION_GOTO_REPORTS));
+		return views;
+	}
+
+	private static void setRow(Context context, RemoteViews views, int iconViewId, int titleViewId, @DrawableRes int icon,
+			@ColorRes int iconColor, @StringRes int title) {
+		views.setImageViewResource(iconViewId, icon);
+		views.setInt(iconViewId, "setColorFilter", ContextCompat.getColor(context, iconColor));
+		views.setTextViewText(titleViewId, context.getString(title));
+	}
+
+	private static PendingIntent createRefreshIntent(Context context) {
+		Intent intent = new Intent(context, StatusWidgetProvider.class);
+		intent.setAction(ACTION_REFRESH);
+		return PendingIntent.getBroadcast(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT);
+	}
+
+	private static PendingIntent createMainIntent(Context context, String action) {
+		Intent intent = new Intent(context, MainActivity.class);
+		intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
+		intent.setAction(action);
+		return PendingIntent.getActivity(context, action == null ? 0 : 1, intent, PendingIntent.FLAG_UPDATE_CURRENT);
+	}
+
+}
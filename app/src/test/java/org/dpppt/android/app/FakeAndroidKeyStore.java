@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app;
+
+import android.security.keystore.KeyGenParameterSpec;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.Key;
+import java.security.KeyStoreSpi;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.KeyGenerator;
+import javax.crypto.KeyGeneratorSpi;
+import javax.crypto.SecretKey;
+
+/**
+ * In-memory stand-in for the "AndroidKeyStore" provider, which Robolectric does not have. Supports what the encrypted
+ * shared preferences need: generating AES keys from a {@link KeyGenParameterSpec} and looking them up by alias.
+ */
+public final class FakeAndroidKeyStore {
+
+	private static final String PROVIDER_NAME = "AndroidKeyStore";
+
+	private static final Map<String, Key> keys = new ConcurrentHashMap<>();
+
+	private FakeAndroidKeyStore() { }
+
+	public static synchronized void install() {
+		if (Security.getProvider(PROVIDER_NAME) == null) {
+			Security.addProvider(new FakeProvider());
+		}
+	}
+
+	private static class FakeProvider extends Provider {
+
+		FakeProvider() {
+			super(PROVIDER_NAME, 1.0, "In-memory stand-in for the Android key store");
+			put("KeyStore." + PROVIDER_NAME, FakeKeyStoreSpi.class.getName());
+			put("KeyGenerator.AES", FakeAesKeyGeneratorSpi.class.getName());
+		}
+
+	}
+
+	public static class FakeKeyStoreSpi extends KeyStoreSpi {
+
+		@Override
+		public Key engineGetKey(String alias, char[] password) {
+			return keys.get(alias);
+		}
+
+		@Override
+		public Certificate[] engineGetCertificateChain(String alias) {
+			return null;
+		}
+
+		@Override
+		public Certificate engineGetCertificate(String alias) {
+			return null;
+		}
+
+		@Override
+		public Date engineGetCreationDate(String alias) {
+			return keys.containsKey(alias) ? new Date() : null;
+		}
+
+		@Override
+		public void engineSetKeyEntry(String alias, Key key, char[] password, Certificate[] chain) {
+			keys.put(alias, key);
+		}
+
+		@Override
+		public void engineSetKeyEntry(String alias, byte[] key, Certificate[] chain) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void engineSetCertificateEntry(String alias, Certificate cert) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void engineDeleteEntry(String alias) {
+			keys.remove(alias);
+		}
+
+		@Override
+		public Enumeration<String> engineAliases() {
+			return Collections.enumeration(keys.keySet());
+		}
+
+		@Override
+		public boolean engineContainsAlias(String alias) {
+			return keys.containsKey(alias);
+		}
+
+		@Override
+		public int engineSize() {
+			return keys.size();
+		}
+
+		@Override
+		public boolean engineIsKeyEntry(String alias) {
+			return keys.containsKey(alias);
+		}
+
+		@Override
+		public boolean engineIsCertificateEntry(String alias) {
+			return false;
+		}
+
+		@Override
+		public String engineGetCertificateAlias(Certificate cert) {
+			return null;
+		}
+
+		@Override
+		public void engineStore(OutputStream stream, char[] password) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void engineLoad(InputStream stream, char[] password) { }
+
+	}
+
+	public static class FakeAesKeyGeneratorSpi extends KeyGeneratorSpi {
+
+		private final KeyGenerator delegate;
+		private KeyGenParameterSpec spec;
+
+		public FakeAesKeyGeneratorSpi() throws NoSuchAlgorithmException {
+			delegate = KeyGenerator.getInstance("AES");
+		}
+
+		@Override
+		protected void engineInit(SecureRandom random) {
+			throw new UnsupportedOperationException("A KeyGenParameterSpec is required");
+		}
+
+		@Override
+		protected void engineInit(AlgorithmParameterSpec params, SecureRandom random) {
+			spec = (KeyGenParameterSpec) params;
+			if (random != null) {
+				delegate.init(spec.getKeySize(), random);
+			} else {
+				delegate.init(spec.getKeySize());
+			}
+		}
+
+		@Override
+		protected void engineInit(int keySize, SecureRandom random) {
+			throw new UnsupportedOperationException("A KeyGenParameterSpec is required");
+		}
+
+		@Override
+		protected SecretKey engineGenerateKey() {
+			SecretKey key = delegate.generateKey();
+			keys.put(spec.getKeystoreAlias(), key);
+			return key;
+		}
+
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app;
+
+import android.app.Application;
+import android.view.View;
+import androidx.annotation.IdRes;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.lifecycle.ViewModelStore;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+
+import org.dpppt.android.app.contacts.ContactsFragment;
+import org.dpppt.android.app.main.HomeFragment;
+import org.dpppt.android.app.reports.ReportsFragment;
+import org.dpppt.android.app.storage.SecureStorage;
+import org.dpppt.android.app.viewmodel.TracingViewModel;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the screens through open/close cycles and fails if a closed screen, its views, a destroyed activity or a
+ * cleared view model are still reachable afterwards. Slower leaks that do not keep a single object alive show up in the
+ * heap growth per cycle of the debug screen's RetentionWatcher.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RetentionTest {
+
+	private static final int CYCLES = 3;
+	private static final long ANIMATION_IDLE_MS = 1000;
+	private static final long GC_TIMEOUT_MS = 5000;
+
+	@Before
+	public void setUp() {
+		SecureStorage.getInstance(ApplicationProvider.getApplicationContext()).setOnboardingCompleted(true);
+	}
+
+	@Test
+	public void contactsScreenIsCollectedAfterClose() {
+		assertScreenCollected(R.id.card_tracing, ContactsFragment.class);
+	}
+
+	@Test
+	public void reportsScreenIsCollectedAfterClose() {
+		assertScreenCollected(R.id.card_notifications, ReportsFragment.class);
+	}
+
+	@Test
+	public void activityIsCollectedAfterRecreateAndDestroy() {
+		ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).setup();
+		WeakReference<MainActivity> firstActivity = new WeakReference<>(controller.get());
+		WeakReference<Fragment> firstHome = new WeakReference<>(findContainerFragment(controller.get()));
+		WeakReference<TracingViewModel> viewModel = new WeakReference<>(getTracingViewModel(controller.get()));
+
+		controller.recreate();
+		ShadowLooper.idleMainLooper(ANIMATION_IDLE_MS, TimeUnit.MILLISECONDS);
+		assertSame("view model must survive the configuration change", viewModel.get(),
+				getTracingViewModel(controller.get()));
+		assertCollected("MainActivity before recreate", firstActivity);
+		assertCollected("HomeFragment before recreate", firstHome);
+
+		WeakReference<MainActivity> secondActivity = new WeakReference<>(controller.get());
+		WeakReference<View> homeView = new WeakReference<>(findContainerFragment(controller.get()).getView());
+		controller.pause().stop().destroy();
+		controller = null;
+		ShadowLooper.idleMainLooper(ANIMATION_IDLE_MS, TimeUnit.MILLISECONDS);
+
+		assertCollected("MainActivity after destroy", secondActivity);
+		assertCollected("HomeFragment view after destroy", homeView);
+		assertCollected("TracingViewModel after destroy", viewModel);
+	}
+
+	@Test
+	public void tracingViewModelIsCollectedAfterClear() {
+		Application application = ApplicationProvider.getApplicationContext();
+		ViewModelStore store = new ViewModelStore();
+		ViewModelProvider.Factory factory = ViewModelProvider.AndroidViewModelFactory.getInstance(application);
+		WeakReference<TracingViewModel> viewModel =
+				new WeakReference<>(new ViewModelProvider(store, factory).get(TracingViewModel.class));
+
+		store.clear();
+
+		assertCollected("TracingViewModel after clear", viewModel);
+	}
+
+	private void assertScreenCollected(@IdRes int entryViewId, Class<? extends Fragment> screenClass) {
+		ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).setup();
+		MainActivity activity = controller.get();
+		FragmentManager fragmentManager = activity.getSupportFragmentManager();
+
+		for (int cycle = 1; cycle <= CYCLES; cycle++) {
+			activity.findViewById(entryViewId).performClick();
+			fragmentManager.executePendingTransactions();
+			ShadowLooper.idleMainLooper(ANIMATION_IDLE_MS, TimeUnit.MILLISECONDS);
+
+			Fragment screen = findContainerFragment(activity);
+			assertTrue(screenClass.getSimpleName() + " was not shown", screenClass.isInstance(screen));
+			WeakReference<Fragment> screenReference = new WeakReference<>(screen);
+			WeakReference<View> viewReference = new WeakReference<>(screen.getView());
+			screen = null;
+
+			fragmentManager.popBackStackImmediate();
+			ShadowLooper.idleMainLooper(ANIMATION_IDLE_MS, TimeUnit.MILLISECONDS);
+			assertTrue("home was not shown again", findContainerFragment(activity) instanceof HomeFragment);
+
+			assertCollected(screenClass.getSimpleName() + " after cycle " + cycle, screenReference);
+			assertCollected(screenClass.getSimpleName() + " view after cycle " + cycle, viewReference);
+		}
+
+		controller.pause().stop().destroy();
+	}
+
+	private static Fragment findContainerFragment(MainActivity activity) {
+		Fragment fragment = activity.getSupportFragmentManager().findFragmentById(R.id.main_fragment_container);
+		assertNotNull(fragment);
+		return fragment;
+	}
+
+	private static TracingViewModel getTracingViewModel(MainActivity activity) {
+		return new ViewModelProvider(activity).get(TracingViewModel.class);
+	}
+
+	private static void assertCollected(String description, WeakReference<?> reference) {
+		// the view model's sync thread may still hold it for a moment, so retry instead of failing on the first pass
+		long deadline = System.currentTimeMillis() + GC_TIMEOUT_MS;
+		while (reference.get() != null && System.currentTimeMillis() < deadline) {
+			getHeapAfterGc();
+		}
+		assertNull(description + " is still reachable", reference.get());
+	}
+
+	private static long getHeapAfterGc() {
+		Runtime runtime = Runtime.getRuntime();
+		runtime.gc();
+		System.runFinalization();
+		try {
+			Thread.sleep(50);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		runtime.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
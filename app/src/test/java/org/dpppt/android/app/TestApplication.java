@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app;
+
+import androidx.work.WorkManager;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+/**
+ * Application used by the Robolectric tests. Sets up what the device provides before the app initializes the SDK: a key
+ * store for the encrypted preferences and a synchronous WorkManager for the sync and report workers.
+ */
+public class TestApplication extends MainApplication {
+
+	@Override
+	public void onCreate() {
+		FakeAndroidKeyStore.install();
+		try {
+			WorkManager.getInstance(this);
+		} catch (IllegalStateException e) {
+			WorkManagerTestInitHelper.initializeTestWorkManager(this);
+		}
+		super.onCreate();
+	}
+
+}
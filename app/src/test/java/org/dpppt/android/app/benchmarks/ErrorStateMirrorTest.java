@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.benchmarks;
+
+import org.dpppt.android.app.util.TracingErrorStateHelper;
+import org.dpppt.android.sdk.TracingStatus;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the error state mirror the benchmarks run on has the states and the priority order the app uses.
+ */
+public class ErrorStateMirrorTest {
+
+	@Test
+	public void mirrorHasTheStatesOfTheSdk() {
+		assertEquals(TracingStatus.ErrorState.values().length, ErrorState.values().length);
+		for (ErrorState errorState : ErrorState.values()) {
+			// throws if the SDK has no state of that name
+			TracingStatus.ErrorState.valueOf(errorState.name());
+		}
+	}
+
+	@Test
+	public void mirrorHasThePrioritiesOfTheApp() {
+		assertEquals(TracingStatus.ErrorState.values().length, ErrorState.PRIORITIES.length);
+		for (int i = 0; i < ErrorState.PRIORITIES.length; i++) {
+			TracingStatus.ErrorState errorState = TracingStatus.ErrorState.valueOf(ErrorState.PRIORITIES[i].name());
+			assertEquals(errorState.name(), 1L << i, TracingErrorStateHelper.toMask(errorState));
+			assertEquals(errorState.name(), i < ErrorState.TRACING_ERRORS.length,
+					TracingErrorStateHelper.isTracingErrorState(errorState));
+			assertEquals(errorState.name(), i >= ErrorState.TRACING_ERRORS.length,
+					TracingErrorStateHelper.isReportsErrorState(errorState));
+		}
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.debug;
+
+import android.app.Application;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.lifecycle.ViewModelStore;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dpppt.android.app.viewmodel.TracingViewModel;
+import org.dpppt.android.sdk.TracingStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays a recorded trace through a {@link TracingViewModel} and checks that statuses, Bluetooth states and lifecycle
+ * events come out in the recorded order, the same way on every replay.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StatusTraceReplayerTest {
+
+	private static final long START_TIME = 1589000000000L;
+	private static final long FRAME_MS = 16;
+	private static final int MAX_FRAMES = 1000;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private ViewModelStore viewModelStore;
+	private TracingViewModel tracingViewModel;
+	private StatusTraceReplayer replayer;
+	private final List<String> emissions = new ArrayList<>();
+
+	private final Observer<TracingStatus> statusObserver = status -> {
+		if (replayer.isReplaying()) emissions.add("status " + status.getNumberOfContacts());
+	};
+	private final Observer<Boolean> bluetoothObserver = enabled -> {
+		if (replayer.isReplaying()) emissions.add("bluetooth " + enabled);
+	};
+	private final StatusTraceReplayer.LifecycleTarget lifecycleTarget = event -> emissions.add("lifecycle " + event);
+
+	@Before
+	public void setUp() {
+		Application application = ApplicationProvider.getApplicationContext();
+		viewModelStore = new ViewModelStore();
+		tracingViewModel = new ViewModelProvider(viewModelStore,
+				ViewModelProvider.AndroidViewModelFactory.getInstance(application)).get(TracingViewModel.class);
+		replayer = new StatusTraceReplayer();
+		tracingViewModel.getTracingStatusLiveData().observeForever(statusObserver);
+		tracingViewModel.getBluetoothEnabledLiveData().observeForever(bluetoothObserver);
+	}
+
+	@After
+	public void tearDown() {
+		replayer.stop();
+		tracingViewModel.getTracingStatusLiveData().removeObserver(statusObserver);
+		tracingViewModel.getBluetoothEnabledLiveData().removeObserver(bluetoothObserver);
+		viewModelStore.clear();
+	}
+
+	@Test
+	public void replayEmitsRecordedEventsInOrder() throws IOException {
+		File trace = writeTrace();
+
+		List<String> firstReplay = replay(trace);
+		List<String> secondReplay = replay(trace);
+
+		// a Bluetooth change re-publishes the current status, like it does for the device state
+		assertEquals(Arrays.asList(
+				"status 1",
+				"bluetooth false", "status 1",
+				"lifecycle ON_STOP",
+				"lifecycle ON_START",
+				"status 2",
+				"bluetooth true", "status 2",
+				"status 3"), firstReplay);
+		assertEquals(firstReplay, secondReplay);
+	}
+
+	@Test
+	public void replayWritesTimingPerEvent() throws IOException {
+		File trace = writeTrace();
+
+		replay(trace);
+
+		File timings = new File(trace.getPath() + ".timings.csv");
+		List<String> lines = Files.readAllLines(timings.toPath(), StandardCharsets.UTF_8);
+		assertEquals("emission,dispatch_ns,frame_ns", lines.get(0));
+		assertEquals(1 + 7, lines.size());
+		StatusTraceReplayer.Stats stats = replayer.getStatsLiveData().getValue();
+		assertFalse(stats.isReplaying());
+		assertEquals(7, stats.getEmittedCount());
+		assertEquals(7, stats.getEventCount());
+		assertEquals(0, stats.getSkippedEventCount());
+	}
+
+	@Test
+	public void lifecycleEventsAreSkippedWithoutTarget() throws IOException {
+		File trace = writeTrace();
+
+		assertTrue(replayer.start(tracingViewModel, trace, null));
+		runUntilFinished();
+
+		StatusTraceReplayer.Stats stats = replayer.getStatsLiveData().getValue();
+		assertEquals(5, stats.getEventCount());
+		assertEquals(2, stats.getSkippedEventCount());
+	}
+
+	private File writeTrace() throws IOException {
+		File file = temporaryFolder.newFile("status.trace");
+		try (StatusTrace.Writer writer = new StatusTrace.Writer(file, START_TIME)) {
+			writer.writeStatus(START_TIME + 100, StatusTraceTest.createStatus(1));
+			writer.writeBluetoothEnabled(START_TIME + 200, false);
+			writer.writeLifecycleEvent(START_TIME + 300, Lifecycle.Event.ON_STOP);
+			writer.writeLifecycleEvent(START_TIME + 60000, Lifecycle.Event.ON_START);
+			writer.writeStatus(START_TIME + 60100, StatusTraceTest.createStatus(2));
+			writer.writeBluetoothEnabled(START_TIME + 60200, true);
+			writer.writeStatus(START_TIME + 60300, StatusTraceTest.createStatus(3));
+		}
+		return file;
+	}
+
+	private List<String> replay(File trace) {
+		// start from a known Bluetooth state, so the first recorded state is always a change
+		tracingViewModel.setBluetoothEnabledOverride(true);
+		emissions.clear();
+		assertTrue(replayer.start(tracingViewModel, trace, lifecycleTarget));
+		runUntilFinished();
+		return new ArrayList<>(emissions);
+	}
+
+	private void runUntilFinished() {
+		for (int frame = 0; frame < MAX_FRAMES && replayer.isReplaying(); frame++) {
+			ShadowLooper.idleMainLooper(FRAME_MS, TimeUnit.MILLISECONDS);
+		}
+		assertFalse("replay did not finish", replayer.isReplaying());
+	}
+
+}
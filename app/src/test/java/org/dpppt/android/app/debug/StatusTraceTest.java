@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.debug;
+
+import androidx.lifecycle.Lifecycle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.dpppt.android.sdk.InfectionStatus;
+import org.dpppt.android.sdk.TracingStatus;
+import org.dpppt.android.sdk.internal.database.models.ExposureDay;
+import org.dpppt.android.sdk.internal.util.DayDate;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class StatusTraceTest {
+
+	private static final long START_TIME = 1589000000000L;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void eventsSurviveRoundTrip() throws IOException {
+		long exposedDate = new DayDate(START_TIME).getStartOfDayTimestamp();
+		TracingStatus status = new TracingStatus(42, true, false, START_TIME - 1000, InfectionStatus.EXPOSED,
+				Collections.singletonList(new ExposureDay(7, new DayDate(exposedDate), START_TIME)),
+				EnumSet.of(TracingStatus.ErrorState.SYNC_ERROR_NETWORK, TracingStatus.ErrorState.BLE_SCANNER_ERROR));
+
+		File file = temporaryFolder.newFile();
+		try (StatusTrace.Writer writer = new StatusTrace.Writer(file, START_TIME)) {
+			writer.writeStatus(START_TIME + 10, status);
+			writer.writeBluetoothEnabled(START_TIME + 20, false);
+			writer.writeLifecycleEvent(START_TIME + 30, Lifecycle.Event.ON_STOP);
+		}
+
+		List<StatusTrace.Event> events = StatusTrace.read(file);
+		assertEquals(3, events.size());
+
+		StatusTrace.Event statusEvent = events.get(0);
+		assertEquals(START_TIME + 10, statusEvent.getTime());
+		TracingStatus readStatus = statusEvent.getStatus();
+		assertEquals(42, readStatus.getNumberOfContacts());
+		assertEquals(true, readStatus.isAdvertising());
+		assertEquals(false, readStatus.isReceiving());
+		assertEquals(START_TIME - 1000, readStatus.getLastSyncDate());
+		assertEquals(InfectionStatus.EXPOSED, readStatus.getInfectionStatus());
+		assertEquals(1, readStatus.getExposureDays().size());
+		assertEquals(7, readStatus.getExposureDays().get(0).getId());
+		assertEquals(exposedDate, readStatus.getExposureDays().get(0).getExposedDate().getStartOfDayTimestamp());
+		assertEquals(EnumSet.of(TracingStatus.ErrorState.SYNC_ERROR_NETWORK, TracingStatus.ErrorState.BLE_SCANNER_ERROR),
+				EnumSet.copyOf(readStatus.getErrors()));
+		assertNull(statusEvent.getBluetoothEnabled());
+		assertNull(statusEvent.getLifecycleEvent());
+
+		assertEquals(START_TIME + 20, events.get(1).getTime());
+		assertEquals(false, events.get(1).getBluetoothEnabled());
+		assertEquals(START_TIME + 30, events.get(2).getTime());
+		assertEquals(Lifecycle.Event.ON_STOP, events.get(2).getLifecycleEvent());
+	}
+
+	@Test
+	public void truncatedEventIsDropped() throws IOException {
+		File file = temporaryFolder.newFile();
+		try (StatusTrace.Writer writer = new StatusTrace.Writer(file, START_TIME)) {
+			writer.writeLifecycleEvent(START_TIME + 10, Lifecycle.Event.ON_START);
+			writer.writeBluetoothEnabled(START_TIME + 20, true);
+			writer.writeStatus(START_TIME + 30, createStatus(3));
+		}
+		long completeLength = file.length();
+
+		for (long cut = 1; cut < 20; cut++) {
+			truncate(file, completeLength - cut);
+			List<StatusTrace.Event> events = StatusTrace.read(file);
+			assertEquals("cut " + cut + " bytes", 2, events.size());
+			assertEquals(Lifecycle.Event.ON_START, events.get(0).getLifecycleEvent());
+			assertEquals(true, events.get(1).getBluetoothEnabled());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedHeaderIsRejected() throws IOException {
+		File file = temporaryFolder.newFile();
+		try (StatusTrace.Writer writer = new StatusTrace.Writer(file, START_TIME)) {
+			writer.writeStatus(START_TIME + 10, createStatus(1));
+		}
+		truncate(file, 10);
+		StatusTrace.read(file);
+	}
+
+	@Test
+	public void allLifecycleEventsSurviveRoundTrip() throws IOException {
+		File file = temporaryFolder.newFile();
+		List<Lifecycle.Event> written = Arrays.asList(Lifecycle.Event.values());
+		try (StatusTrace.Writer writer = new StatusTrace.Writer(file, START_TIME)) {
+			long time = START_TIME;
+			for (Lifecycle.Event event : written) {
+				writer.writeLifecycleEvent(++time, event);
+			}
+		}
+
+		List<Lifecycle.Event> read = new ArrayList<>();
+		for (StatusTrace.Event event : StatusTrace.read(file)) {
+			read.add(event.getLifecycleEvent());
+		}
+		assertEquals(written, read);
+	}
+
+	static TracingStatus createStatus(int numberOfContacts) {
+		return new TracingStatus(numberOfContacts, true, true, START_TIME, InfectionStatus.HEALTHY,
+				Collections.emptyList(), EnumSet.noneOf(TracingStatus.ErrorState.class));
+	}
+
+	private static void truncate(File file, long length) throws IOException {
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+			randomAccessFile.setLength(length);
+		}
+	}
+
+}
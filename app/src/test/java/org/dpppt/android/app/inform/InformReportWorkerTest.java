@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.inform;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.work.BackoffPolicy;
+import androidx.work.Data;
+import androidx.work.ListenableWorker.Result;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.testing.TestListenableWorkerBuilder;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.dpppt.android.app.storage.SecureStorage;
+import org.dpppt.android.sdk.backend.ResponseCallback;
+import org.dpppt.android.sdk.internal.backend.StatusCodeException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the report worker and the outbox against a mock server that injects backend and network failures, and checks
+ * which of them are retried, which ones end the report and what is left of the pending report afterwards.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InformReportWorkerTest {
+
+	private static final String AUTH_CODE = "123456789012";
+
+	private MockWebServer server;
+	private FakeReportSender sender;
+	private Context context;
+	private SecureStorage secureStorage;
+
+	@Before
+	public void setUp() throws IOException {
+		server = new MockWebServer();
+		server.start();
+		sender = new FakeReportSender();
+		InformReportWorker.setReportSender(sender);
+		context = ApplicationProvider.getApplicationContext();
+		secureStorage = SecureStorage.getInstance(context);
+		secureStorage.saveInformRequest(AUTH_CODE, 0);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		InformReportWorker.setReportSender(null);
+		secureStorage.clearInformTimeAndCodeAndToken();
+		secureStorage.setInformRequestPending(false);
+		server.shutdown();
+	}
+
+	@Test
+	public void successEndsTheReport() {
+		server.enqueue(new MockResponse().setResponseCode(200));
+
+		assertEquals(Result.success(), runWorker(0));
+		assertEquals(1, server.getRequestCount());
+		assertFalse(secureStorage.isInformRequestPending());
+		assertNull(secureStorage.getLastInformCode());
+	}
+
+	@Test
+	public void serverErrorsAreRetried() {
+		for (int code : new int[] { 500, 502, 503 }) {
+			server.enqueue(new MockResponse().setResponseCode(code));
+
+			assertEquals("HTTP " + code, Result.retry(), runWorker(0));
+			assertTrue("HTTP " + code, secureStorage.isInformRequestPending());
+			assertEquals("HTTP " + code, AUTH_CODE, secureStorage.getLastInformCode());
+		}
+	}
+
+	@Test
+	public void droppedConnectionIsRetried() {
+		server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+
+		assertEquals(Result.retry(), runWorker(0));
+		assertTrue(secureStorage.isInformRequestPending());
+	}
+
+	@Test
+	public void missingResponseIsRetried() {
+		server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+		assertEquals(Result.retry(), runWorker(0));
+		assertTrue(secureStorage.isInformRequestPending());
+	}
+
+	@Test
+	public void refusedReportsAreNotRetried() {
+		for (int code : new int[] { 400, 401, 403, 404 }) {
+			secureStorage.saveInformRequest(AUTH_CODE, 0);
+			server.enqueue(new MockResponse().setResponseCode(code));
+
+			Result expected = Result.failure(new Data.Builder().putBoolean(InformReportWorker.OUTPUT_REJECTED, true).build());
+			assertEquals("HTTP " + code, expected, runWorker(0));
+			assertFalse("HTTP " + code, secureStorage.isInformRequestPending());
+			assertNull("HTTP " + code, secureStorage.getLastInformCode());
+		}
+	}
+
+	@Test
+	public void lastAttemptEndsTheReport() {
+		server.enqueue(new MockResponse().setResponseCode(503));
+		assertEquals(Result.retry(), runWorker(InformReportWorker.MAX_ATTEMPTS - 2));
+
+		server.enqueue(new MockResponse().setResponseCode(503));
+		assertEquals(Result.failure(), runWorker(InformReportWorker.MAX_ATTEMPTS - 1));
+		assertFalse(secureStorage.isInformRequestPending());
+	}
+
+	@Test
+	public void unexpectedErrorsEndTheReport() {
+		Throwable error = new IllegalStateException("unexpected");
+		assertFalse(InformReportWorker.isRetryable(error));
+		assertFalse(InformReportWorker.isRejected(error));
+	}
+
+	@Test
+	public void acceptedReportIsNotSentAgain() {
+		// an earlier attempt reached the backend although the worker did not get the response
+		sender.reportedAsInfected = true;
+
+		assertEquals(Result.success(), runWorker(1));
+		assertEquals(0, server.getRequestCount());
+		assertFalse(secureStorage.isInformRequestPending());
+		assertNull(secureStorage.getLastInformCode());
+	}
+
+	@Test
+	public void reportThatIsNoLongerPendingIsNotSent() {
+		secureStorage.setInformRequestPending(false);
+
+		assertEquals(Result.failure(), runWorker(0));
+		assertEquals(0, server.getRequestCount());
+	}
+
+	@Test
+	public void outboxWaitsForTheNetwork() throws Exception {
+		server.enqueue(new MockResponse().setResponseCode(200));
+
+		InformReportOutbox.enqueue(context, AUTH_CODE, 0);
+		WorkInfo queued = getUnfinishedWork();
+		assertEquals(WorkInfo.State.ENQUEUED, queued.getState());
+		assertEquals(0, queued.getRunAttemptCount());
+		assertEquals(0, server.getRequestCount());
+
+		WorkManagerTestInitHelper.getTestDriver(context).setAllConstraintsMet(queued.getId());
+
+		assertEquals(WorkInfo.State.SUCCEEDED, getWorkInfo(queued.getId()).getState());
+		assertEquals(1, server.getRequestCount());
+		assertFalse(secureStorage.isInformRequestPending());
+	}
+
+	@Test
+	public void outboxKeepsOnlyTheLatestReport() throws Exception {
+		InformReportOutbox.enqueue(context, "000000000000", 0);
+		UUID replaced = getUnfinishedWork().getId();
+
+		InformReportOutbox.enqueue(context, AUTH_CODE, 0);
+
+		assertEquals(WorkInfo.State.CANCELLED, getWorkInfo(replaced).getState());
+		assertEquals(AUTH_CODE, secureStorage.getLastInformCode());
+		assertTrue(secureStorage.isInformRequestPending());
+	}
+
+	@Test
+	public void outboxRetriesWithExponentialBackoffOnceOnline() {
+		OneTimeWorkRequest request = InformReportOutbox.createWorkRequest();
+
+		assertEquals(NetworkType.CONNECTED, request.getWorkSpec().constraints.getRequiredNetworkType());
+		assertEquals(BackoffPolicy.EXPONENTIAL, request.getWorkSpec().backoffPolicy);
+		assertEquals(TimeUnit.SECONDS.toMillis(30), request.getWorkSpec().backoffDelayDuration);
+	}
+
+	private Result runWorker(int runAttemptCount) {
+		InformReportWorker worker = TestListenableWorkerBuilder.from(context, InformReportWorker.class)
+				.setRunAttemptCount(runAttemptCount)
+				.build();
+		return worker.doWork();
+	}
+
+	private WorkInfo getUnfinishedWork() throws ExecutionException, InterruptedException {
+		List<WorkInfo> unfinished = new ArrayList<>();
+		for (WorkInfo info : WorkManager.getInstance(context)
+				.getWorkInfosForUniqueWork(InformReportOutbox.WORK_NAME).get()) {
+			if (!info.getState().isFinished()) {
+				unfinished.add(info);
+			}
+		}
+		assertEquals(1, unfinished.size());
+		return unfinished.get(0);
+	}
+
+	private WorkInfo getWorkInfo(UUID id) throws ExecutionException, InterruptedException {
+		return WorkManager.getInstance(context).getWorkInfoById(id).get();
+	}
+
+	/**
+	 * Posts the report to the mock server and passes the result on like the SDK does, which wraps responses with an
+	 * error status in a {@link StatusCodeException}.
+	 */
+	private class FakeReportSender implements InformReportWorker.ReportSender {
+
+		private final OkHttpClient client = new OkHttpClient.Builder()
+				.readTimeout(1, TimeUnit.SECONDS)
+				.build();
+		private boolean reportedAsInfected = false;
+
+		@Override
+		public boolean isReportedAsInfected(Context context) {
+			return reportedAsInfected;
+		}
+
+		@Override
+		public void send(Context context, Date onsetDate, String authCode, ResponseCallback<Void> callback) {
+			Request request = new Request.Builder()
+					.url(server.url("/v1/exposed"))
+					.post(RequestBody.create(MediaType.parse("application/json"), "{\"authData\":\"" + authCode + "\"}"))
+					.build();
+			try (Response response = client.newCall(request).execute()) {
+				if (response.isSuccessful()) {
+					callback.onSuccess(null);
+				} else {
+					callback.onError(new StatusCodeException(response));
+				}
+			} catch (IOException e) {
+				callback.onError(e);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.inform;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LuhnAuthCodeValidatorTest {
+
+	private final AuthCodeValidator validator = new LuhnAuthCodeValidator(12);
+
+	@Test
+	public void acceptsCodesWithValidCheckDigit() {
+		assertTrue(validator.isValid("123456789015"));
+		assertTrue(validator.isValid("000000000000"));
+		assertTrue(validator.isValid("079927398713"));
+	}
+
+	@Test
+	public void rejectsSingleDigitErrors() {
+		assertFalse(validator.isValid("123456789016"));
+		assertFalse(validator.isValid("123456789025"));
+	}
+
+	@Test
+	public void rejectsAdjacentTranspositions() {
+		assertFalse(validator.isValid("213456789015"));
+		assertFalse(validator.isValid("123456789051"));
+	}
+
+	@Test
+	public void incompleteCodesAreNotValid() {
+		assertFalse(validator.isComplete(null));
+		assertFalse(validator.isComplete(""));
+		assertFalse(validator.isComplete("12345678901"));
+		assertFalse(validator.isComplete("1234567890155"));
+		assertFalse(validator.isValid("79927398713"));
+	}
+
+	@Test
+	public void codesWithNonDigitsAreNotComplete() {
+		assertFalse(validator.isComplete("12345678901a"));
+		assertFalse(validator.isComplete("1234 6789015"));
+		assertFalse(validator.isValid("12345678901/"));
+	}
+
+	@Test
+	public void completeCodeWithWrongCheckDigitIsComplete() {
+		assertTrue(validator.isComplete("123456789016"));
+	}
+
+}
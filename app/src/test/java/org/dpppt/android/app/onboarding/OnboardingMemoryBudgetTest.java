@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.onboarding;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.widget.ImageView;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Lifecycle;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.viewpager2.widget.ViewPager2;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.dpppt.android.app.R;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Steps through the whole onboarding and checks that the illustration bitmaps held by the pages stay within the budget
+ * of the pages the pager keeps bound, that stopped pages hold none and that each page shows its illustration as soon as
+ * it is selected.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OnboardingMemoryBudgetTest {
+
+	/**
+	 * The current page and the two off-screen views RecyclerView caches.
+	 */
+	private static final int PAGE_BUDGET = 3;
+	private static final long SCROLL_IDLE_MS = 1000;
+	private static final long LOAD_TIMEOUT_MS = 5000;
+
+	private ActivityController<OnboardingActivity> controller;
+	private OnboardingActivity activity;
+	private ViewPager2 viewPager;
+
+	@Before
+	public void setUp() {
+		controller = Robolectric.buildActivity(OnboardingActivity.class).setup();
+		activity = controller.get();
+		viewPager = activity.findViewById(R.id.pager);
+	}
+
+	@After
+	public void tearDown() {
+		controller.pause().stop().destroy();
+	}
+
+	@Test
+	public void heldIllustrationsStayWithinBudget() {
+		int pageCount = viewPager.getAdapter().getItemCount();
+		long largestIllustrationBytes = 0;
+		long peakHeldBytes = 0;
+		int peakHeldPages = 0;
+
+		for (int position = 0; position < pageCount; position++) {
+			if (position > 0) {
+				activity.continueToNextPage();
+				ShadowLooper.idleMainLooper(SCROLL_IDLE_MS, TimeUnit.MILLISECONDS);
+			}
+			assertEquals(position, viewPager.getCurrentItem());
+
+			Bitmap current = awaitIllustration(position);
+			assertNotNull("page " + position + " shows no illustration", current);
+			largestIllustrationBytes = Math.max(largestIllustrationBytes, current.getByteCount());
+
+			Set<Bitmap> held = Collections.newSetFromMap(new IdentityHashMap<>());
+			int heldPages = 0;
+			for (Fragment fragment : activity.getSupportFragmentManager().getFragments()) {
+				Bitmap bitmap = getIllustration(fragment);
+				if (bitmap == null) continue;
+				assertTrue("stopped page " + fragment + " still holds its illustration",
+						fragment.getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED));
+				held.add(bitmap);
+				heldPages++;
+			}
+			long heldBytes = 0;
+			for (Bitmap bitmap : held) {
+				heldBytes += bitmap.getByteCount();
+			}
+			peakHeldBytes = Math.max(peakHeldBytes, heldBytes);
+			peakHeldPages = Math.max(peakHeldPages, heldPages);
+		}
+
+		assertTrue("up to " + peakHeldPages + " pages held an illustration", peakHeldPages <= PAGE_BUDGET);
+		assertTrue("held illustrations peaked at " + peakHeldBytes + " bytes",
+				peakHeldBytes <= PAGE_BUDGET * largestIllustrationBytes);
+	}
+
+	@Test
+	public void stoppedActivityReleasesAllIllustrations() {
+		assertNotNull(awaitIllustration(0));
+
+		controller.pause().stop();
+
+		for (Fragment fragment : activity.getSupportFragmentManager().getFragments()) {
+			assertNull(fragment + " still holds its illustration", getIllustration(fragment));
+		}
+		controller.start().resume();
+		assertNotNull("illustration was not attached again", awaitIllustration(0));
+	}
+
+	@Nullable
+	private Bitmap awaitIllustration(int position) {
+		long deadline = System.currentTimeMillis() + LOAD_TIMEOUT_MS;
+		while (true) {
+			ShadowLooper.idleMainLooper();
+			Bitmap bitmap = getIllustration(activity.getSupportFragmentManager().findFragmentByTag("f" + position));
+			if (bitmap != null || System.currentTimeMillis() > deadline) {
+				return bitmap;
+			}
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+	}
+
+	@Nullable
+	private static Bitmap getIllustration(@Nullable Fragment fragment) {
+		if (!(fragment instanceof OnboardingPageFragment) || fragment.getView() == null) return null;
+		View view = fragment.getView().findViewById(R.id.onboarding_illustration);
+		if (!(view instanceof ImageView)) return null;
+		Drawable drawable = ((ImageView) view).getDrawable();
+		return drawable instanceof BitmapDrawable ? ((BitmapDrawable) drawable).getBitmap() : null;
+	}
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DailyCountRingTest {
+
+	private static final int CAPACITY = 7;
+	private static final int DAY = 18400;
+
+	@Test
+	public void firstTotalIsOnlyTheBaseline() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+
+		assertTrue(ring.update(DAY, 40));
+
+		assertCounts(ring, DAY, 0, 0, 0, 0, 0, 0, 0);
+	}
+
+	@Test
+	public void increasesAddUpOnTheCurrentDay() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 40);
+
+		ring.update(DAY, 43);
+		ring.update(DAY, 50);
+
+		assertCounts(ring, DAY, 0, 0, 0, 0, 0, 0, 10);
+	}
+
+	@Test
+	public void unchangedTotalOnTheSameDayIsNoChange() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 40);
+
+		assertFalse(ring.update(DAY, 40));
+		assertTrue(ring.update(DAY + 1, 40));
+	}
+
+	@Test
+	public void decreasingTotalIsNotCounted() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 40);
+		ring.update(DAY, 45);
+
+		// the SDK deleted old contacts
+		assertTrue(ring.update(DAY, 20));
+		ring.update(DAY, 22);
+
+		assertCounts(ring, DAY, 0, 0, 0, 0, 0, 0, 7);
+	}
+
+	@Test
+	public void daysAreListedOldestFirst() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 0);
+		ring.update(DAY, 1);
+		ring.update(DAY + 1, 3);
+		ring.update(DAY + 3, 6);
+
+		assertCounts(ring, DAY + 3, 0, 0, 0, 1, 2, 0, 3);
+		// no update since, the window still moves with the day asked for
+		assertCounts(ring, DAY + 5, 0, 1, 2, 0, 3, 0, 0);
+		assertCounts(ring, DAY + 9, 3, 0, 0, 0, 0, 0, 0);
+		assertCounts(ring, DAY + 10, 0, 0, 0, 0, 0, 0, 0);
+	}
+
+	@Test
+	public void slotsAreReusedAfterAFullRound() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 0);
+		for (int i = 0; i < CAPACITY; i++) {
+			ring.update(DAY + i, i + 1);
+		}
+		assertCounts(ring, DAY + CAPACITY - 1, 1, 1, 1, 1, 1, 1, 1);
+
+		// DAY + CAPACITY lands in the slot of DAY, which must start from zero again
+		ring.update(DAY + CAPACITY, CAPACITY + 5);
+
+		assertCounts(ring, DAY + CAPACITY, 1, 1, 1, 1, 1, 1, 5);
+	}
+
+	@Test
+	public void gapLongerThanTheCapacityClearsAllDays() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 0);
+		for (int i = 0; i < CAPACITY; i++) {
+			ring.update(DAY + i, (i + 1) * 2);
+		}
+
+		ring.update(DAY + 3 * CAPACITY + 2, CAPACITY * 2 + 1);
+
+		assertCounts(ring, DAY + 3 * CAPACITY + 2, 0, 0, 0, 0, 0, 0, 1);
+	}
+
+	@Test
+	public void clockSetBackKeepsCountingOnTheNewestDay() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 0);
+		ring.update(DAY, 2);
+
+		ring.update(DAY - 3, 5);
+
+		assertCounts(ring, DAY, 0, 0, 0, 0, 0, 0, 5);
+		// seen from the earlier day the newer days are not shown yet
+		assertCounts(ring, DAY - 3, 0, 0, 0, 0, 0, 0, 0);
+	}
+
+	@Test
+	public void daysBeforeTheEpochUseValidSlots() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(-2, 0);
+		ring.update(-2, 1);
+		ring.update(-1, 3);
+		ring.update(0, 6);
+		ring.update(1, 10);
+
+		assertCounts(ring, 1, 0, 0, 0, 1, 2, 3, 4);
+	}
+
+	@Test
+	public void clearDropsCountsAndBaseline() {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 0);
+		ring.update(DAY, 4);
+
+		ring.clear();
+		ring.update(DAY, 10);
+
+		assertCounts(ring, DAY, 0, 0, 0, 0, 0, 0, 0);
+	}
+
+	@Test
+	public void stateSurvivesWriteAndRead() throws IOException {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 0);
+		ring.update(DAY, 2);
+		ring.update(DAY + 2, 5);
+
+		DailyCountRing restored = new DailyCountRing(CAPACITY);
+		restored.readFrom(new DataInputStream(new ByteArrayInputStream(write(ring))));
+
+		assertCounts(restored, DAY + 2, 0, 0, 0, 0, 2, 0, 3);
+		restored.update(DAY + 2, 6);
+		assertCounts(restored, DAY + 2, 0, 0, 0, 0, 2, 0, 4);
+	}
+
+	@Test
+	public void truncatedInputLeavesStateUnchanged() throws IOException {
+		DailyCountRing ring = new DailyCountRing(CAPACITY);
+		ring.update(DAY, 0);
+		ring.update(DAY, 2);
+		byte[] data = write(ring);
+
+		DailyCountRing other = new DailyCountRing(CAPACITY);
+		other.update(DAY, 0);
+		other.update(DAY, 9);
+		try {
+			other.readFrom(new DataInputStream(new ByteArrayInputStream(Arrays.copyOf(data, data.length - 1))));
+			fail("truncated input was read");
+		} catch (EOFException e) {
+			// expected
+		}
+
+		assertCounts(other, DAY, 0, 0, 0, 0, 0, 0, 9);
+	}
+
+	private static byte[] write(DailyCountRing ring) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		ring.writeTo(out);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static void assertCounts(DailyCountRing ring, int today, int... expected) {
+		assertArrayEquals(Arrays.toString(ring.getDailyCounts(today)), expected, ring.getDailyCounts(today));
+	}
+
+}
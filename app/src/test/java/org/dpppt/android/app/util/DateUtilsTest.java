@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DateUtilsTest {
+
+	private static final ZoneId ZURICH = ZoneId.of("Europe/Zurich");
+
+	private TimeZone defaultTimeZone;
+
+	@Before
+	public void setUp() {
+		defaultTimeZone = TimeZone.getDefault();
+		setTimeZone(ZURICH);
+	}
+
+	@After
+	public void tearDown() {
+		TimeZone.setDefault(defaultTimeZone);
+		DateUtils.invalidateCaches();
+	}
+
+	@Test
+	public void epochDayStartsAtLocalMidnight() {
+		setTimeZone(ZoneId.of("UTC"));
+		assertEquals(0, DateUtils.getEpochDay(0));
+		assertEquals(-1, DateUtils.getEpochDay(-1));
+
+		setTimeZone(ZURICH);
+		assertEquals(0, DateUtils.getEpochDay(at(1970, 1, 1, 0, 0)));
+		assertEquals(-1, DateUtils.getEpochDay(at(1969, 12, 31, 23, 59)));
+	}
+
+	@Test
+	public void shortDayAtSpringForwardIsOneDay() {
+		// 2020-03-29 only has 23 hours in Zurich
+		int day = DateUtils.getEpochDay(at(2020, 3, 29, 0, 0));
+		assertEquals(day, DateUtils.getEpochDay(at(2020, 3, 29, 1, 59)));
+		assertEquals(day, DateUtils.getEpochDay(at(2020, 3, 29, 3, 0)));
+		assertEquals(day, DateUtils.getEpochDay(at(2020, 3, 29, 23, 59)));
+		assertEquals(day - 1, DateUtils.getEpochDay(at(2020, 3, 28, 23, 59)));
+		assertEquals(day + 1, DateUtils.getEpochDay(at(2020, 3, 30, 0, 0)));
+	}
+
+	@Test
+	public void longDayAtFallBackIsOneDay() {
+		// 2020-10-25 has 25 hours in Zurich
+		int day = DateUtils.getEpochDay(at(2020, 10, 25, 0, 0));
+		assertEquals(day, DateUtils.getEpochDay(at(2020, 10, 25, 2, 30)));
+		assertEquals(day, DateUtils.getEpochDay(at(2020, 10, 25, 2, 30) + TimeUnit.HOURS.toMillis(1)));
+		assertEquals(day, DateUtils.getEpochDay(at(2020, 10, 25, 23, 59)));
+		assertEquals(day + 1, DateUtils.getEpochDay(at(2020, 10, 26, 0, 0)));
+	}
+
+	@Test
+	public void epochDayMatchesLocalDateAroundTheYear() {
+		for (String zone : new String[] { "Europe/Zurich", "America/New_York", "Australia/Lord_Howe", "Asia/Kathmandu" }) {
+			ZoneId zoneId = ZoneId.of(zone);
+			setTimeZone(zoneId);
+			long start = at(2020, 1, 1, 0, 0);
+			long end = at(2021, 1, 1, 0, 0);
+			for (long time = start; time < end; time += TimeUnit.MINUTES.toMillis(15)) {
+				long expected = Instant.ofEpochMilli(time).atZone(zoneId).toLocalDate().toEpochDay();
+				assertEquals(zone + " at " + Instant.ofEpochMilli(time), expected, DateUtils.getEpochDay(time));
+			}
+		}
+	}
+
+	@Test
+	public void daysDiffCountsCalendarDays() {
+		long now = System.currentTimeMillis();
+		assertEquals(0, DateUtils.getDaysDiff(now));
+		for (int days = 1; days <= 30; days++) {
+			Calendar calendar = Calendar.getInstance();
+			calendar.setTimeInMillis(now);
+			calendar.add(Calendar.DATE, -days);
+			assertEquals(days, DateUtils.getDaysDiff(calendar.getTimeInMillis()));
+		}
+		assertEquals(10, DateUtils.getDaysDiffUntil(now, 10));
+	}
+
+	@Test
+	public void invalidateCachesPicksUpNewTimeZone() {
+		long time = at(2020, 6, 1, 0, 30);
+		int zurichDay = DateUtils.getEpochDay(time);
+
+		setTimeZone(ZoneId.of("UTC"));
+
+		assertEquals(zurichDay - 1, DateUtils.getEpochDay(time));
+	}
+
+	private static long at(int year, int month, int day, int hour, int minute) {
+		ZoneId zoneId = TimeZone.getDefault().toZoneId();
+		return LocalDateTime.of(year, month, day, hour, minute).atZone(zoneId).toInstant().toEpochMilli();
+	}
+
+	private static void setTimeZone(ZoneId zoneId) {
+		TimeZone.setDefault(TimeZone.getTimeZone(zoneId));
+		DateUtils.invalidateCaches();
+	}
+
+}
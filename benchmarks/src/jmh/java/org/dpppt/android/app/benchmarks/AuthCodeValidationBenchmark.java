@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import org.dpppt.android.app.inform.AuthCodeValidator;
+import org.dpppt.android.app.inform.LuhnAuthCodeValidator;
+
+/**
+ * Validation run on every keystroke in the authorization code input, the regex match it used before against the Luhn
+ * validator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class AuthCodeValidationBenchmark {
+
+	private static final int NUM_CHARACTERS = 12;
+	private static final String REGEX_CODE_PATTERN = "\\d{" + NUM_CHARACTERS + "}";
+
+	@Param({ "1234", "123456789015" })
+	public String input;
+
+	private final AuthCodeValidator validator = new LuhnAuthCodeValidator(NUM_CHARACTERS);
+
+	@Benchmark
+	public boolean regex() {
+		return input.matches(REGEX_CODE_PATTERN);
+	}
+
+	@Benchmark
+	public boolean luhn() {
+		return validator.isValid(input);
+	}
+
+}
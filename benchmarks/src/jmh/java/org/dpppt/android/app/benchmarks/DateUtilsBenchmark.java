@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.dpppt.android.app.util.DateUtils;
+
+/**
+ * Day math and date formatting as used when binding the reports and the home screen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DateUtilsBenchmark {
+
+	private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+	private final long[] exposureTimestamps = new long[14];
+
+	@Setup
+	public void setup() {
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < exposureTimestamps.length; i++) {
+			exposureTimestamps[i] = now - i * DAY;
+		}
+	}
+
+	@Benchmark
+	public int getDaysDiff() {
+		int sum = 0;
+		for (long timestamp : exposureTimestamps) {
+			sum += DateUtils.getDaysDiff(timestamp);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int getDaysDiffUntil() {
+		int sum = 0;
+		for (long timestamp : exposureTimestamps) {
+			sum += DateUtils.getDaysDiffUntil(timestamp, 10);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int getFormattedDate() {
+		int length = 0;
+		for (long timestamp : exposureTimestamps) {
+			length += DateUtils.getFormattedDate(timestamp).length();
+		}
+		return length;
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.dpppt.android.app.util.EnumPriorityMask;
+
+/**
+ * Priority resolution of TracingErrorStateHelper, the list scan it used before against the priority mask.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ErrorStatePriorityBenchmark {
+
+	@Param({ "0", "1", "3" })
+	public int numErrors;
+
+	private final EnumPriorityMask<ErrorState> priorityMask = new EnumPriorityMask<>(ErrorState.class, ErrorState.PRIORITIES);
+	private final long tracingErrorMask = priorityMask.getRangeMask(0, ErrorState.TRACING_ERRORS.length);
+	private final long reportsErrorMask =
+			priorityMask.getRangeMask(ErrorState.TRACING_ERRORS.length, ErrorState.PRIORITIES.length);
+
+	private Collection<ErrorState> errors;
+
+	@Setup
+	public void setup() {
+		List<ErrorState> errors = new ArrayList<>();
+		ErrorState[] candidates = new ErrorState[] {
+				ErrorState.BLE_SCANNER_ERROR, ErrorState.SYNC_ERROR_NETWORK, ErrorState.BATTERY_OPTIMIZER_ENABLED };
+		for (int i = 0; i < numErrors; i++) {
+			errors.add(candidates[i]);
+		}
+		this.errors = errors;
+	}
+
+	@Benchmark
+	public ErrorState listScan() {
+		ErrorState tracingError = null;
+		for (ErrorState errorState : ErrorState.TRACING_PRIORITY_LIST) {
+			if (errors.contains(errorState)) {
+				tracingError = errorState;
+				break;
+			}
+		}
+		ErrorState reportsError = null;
+		for (ErrorState errorState : ErrorState.REPORTS_PRIORITY_LIST) {
+			if (errors.contains(errorState)) {
+				reportsError = errorState;
+				break;
+			}
+		}
+		return tracingError != null ? tracingError : reportsError;
+	}
+
+	@Benchmark
+	public ErrorState priorityMask() {
+		long mask = priorityMask.toMask(errors);
+		ErrorState tracingError = priorityMask.getHighestPriority(mask & tracingErrorMask);
+		ErrorState reportsError = priorityMask.getHighestPriority(mask & reportsErrorMask);
+		return tracingError != null ? tracingError : reportsError;
+	}
+
+}
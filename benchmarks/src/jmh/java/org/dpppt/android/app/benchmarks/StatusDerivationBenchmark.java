@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.dpppt.android.app.util.EnumPriorityMask;
+import org.dpppt.android.app.util.ErrorStateHysteresis;
+import org.dpppt.android.app.util.SyncErrorDelay;
+
+/**
+ * The work TracingStatusWrapper does for every status emission: filtering the error mask through the hysteresis,
+ * resolving the tracing and report errors and checking how old the last sync is.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class StatusDerivationBenchmark {
+
+	private final EnumPriorityMask<ErrorState> priorityMask = new EnumPriorityMask<>(ErrorState.class, ErrorState.PRIORITIES);
+	private final long tracingErrorMask = priorityMask.getRangeMask(0, ErrorState.TRACING_ERRORS.length);
+	private final long reportsErrorMask =
+			priorityMask.getRangeMask(ErrorState.TRACING_ERRORS.length, ErrorState.PRIORITIES.length);
+
+	private ErrorStateHysteresis hysteresis;
+	private Collection<ErrorState>[] emissions;
+	private long lastSyncDate;
+	private long now;
+	private int emission;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		hysteresis = new ErrorStateHysteresis(
+				priorityMask.toMask(ErrorState.BLE_SCANNER_ERROR) | priorityMask.toMask(ErrorState.BLE_ADVERTISING_ERROR),
+				TimeUnit.SECONDS.toMillis(30), TimeUnit.SECONDS.toMillis(10));
+		// a flapping scanner error next to a steady sync error
+		emissions = new Collection[] {
+				Collections.singletonList(ErrorState.SYNC_ERROR_NETWORK),
+				Arrays.asList(ErrorState.BLE_SCANNER_ERROR, ErrorState.SYNC_ERROR_NETWORK),
+				Collections.emptyList(),
+				Collections.singletonList(ErrorState.BLE_SCANNER_ERROR) };
+		now = System.currentTimeMillis();
+		lastSyncDate = now - SyncErrorDelay.DELAY_MILLIS;
+	}
+
+	@Benchmark
+	public void deriveStatus(Blackhole blackhole) {
+		now += 1000;
+		Collection<ErrorState> errors = emissions[emission++ & (emissions.length - 1)];
+		long errorMask = hysteresis.filter(priorityMask.toMask(errors), now);
+		blackhole.consume(priorityMask.getHighestPriority(errorMask & tracingErrorMask));
+		ErrorState reportsError = priorityMask.getHighestPriority(errorMask & reportsErrorMask);
+		blackhole.consume(reportsError != null && SyncErrorDelay.isOver(lastSyncDate, now) ? reportsError : null);
+		blackhole.consume(hysteresis.getNextUpdateTime());
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2020 Ubique Innovation AG <https://www.ubique.ch>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package org.dpppt.android.app.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mirror of the SDK's TracingStatus.ErrorState, which is only available as an Android library, in the priority order
+ * used by TracingErrorStateHelper. Also compiled into the app's unit tests, which check that it matches.
+ */
+enum ErrorState {
+	SYNC_ERROR_SERVER,
+	SYNC_ERROR_NETWORK,
+	SYNC_ERROR_DATABASE,
+	SYNC_ERROR_TIMING,
+	SYNC_ERROR_SIGNATURE,
+	MISSING_LOCATION_PERMISSION,
+	BLE_DISABLED,
+	BLE_NOT_SUPPORTED,
+	BLE_INTERNAL_ERROR,
+	BLE_ADVERTISING_ERROR,
+	BLE_SCANNER_ERROR,
+	LOCATION_SERVICE_DISABLED,
+	BATTERY_OPTIMIZER_ENABLED;
+
+	static final ErrorState[] TRACING_ERRORS = new ErrorState[] {
+			BLE_NOT_SUPPORTED,
+			MISSING_LOCATION_PERMISSION,
+			BLE_DISABLED,
+			LOCATION_SERVICE_DISABLED,
+			BATTERY_OPTIMIZER_ENABLED,
+			SYNC_ERROR_TIMING,
+			BLE_INTERNAL_ERROR,
+			BLE_ADVERTISING_ERROR,
+			BLE_SCANNER_ERROR };
+	static final ErrorState[] REPORT_ERRORS = new ErrorState[] {
+			SYNC_ERROR_DATABASE,
+			SYNC_ERROR_SERVER,
+			SYNC_ERROR_NETWORK,
+			SYNC_ERROR_SIGNATURE };
+
+	static final ErrorState[] PRIORITIES = concat(TRACING_ERRORS, REPORT_ERRORS);
+
+	static final List<ErrorState> TRACING_PRIORITY_LIST = Arrays.asList(TRACING_ERRORS);
+	static final List<ErrorState> REPORTS_PRIORITY_LIST = Arrays.asList(REPORT_ERRORS);
+
+	private static ErrorState[] concat(ErrorState[] first, ErrorState[] second) {
+		ErrorState[] all = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, all, first.length, second.length);
+		return all;
+	}
+}